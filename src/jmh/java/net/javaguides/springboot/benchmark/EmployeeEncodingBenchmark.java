@@ -0,0 +1,76 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.EmployeeView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode time of the employee list in each format the API negotiates, with and without the
+ * gzip the server applies above its compression threshold. The encoded size of each
+ * combination is printed once per trial, so bytes on the wire can be read next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"1000", "10000"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<EmployeeView> employees;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        employees = new ArrayList<>(listSize);
+        for(int i = 1; i <= listSize; i++){
+            employees.add(new EmployeeView(i, "First" + i, "Last" + i, "employee" + i + "@bench.example", 0L));
+        }
+        System.out.printf("%nformat=%s gzip=%s listSize=%d bytes=%d%n", format, gzip, listSize, encode().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if(!gzip){
+            return objectMapper.writeValueAsBytes(employees);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream compressed = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(compressed, employees);
+        }
+        return bytes.toByteArray();
+    }
+}
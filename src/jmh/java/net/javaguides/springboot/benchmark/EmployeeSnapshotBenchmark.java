@@ -0,0 +1,75 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.snapshot.OffHeapEmployeeTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup by id in the off-heap snapshot against the same rows as views in a heap map. Heap
+ * in use after loading is printed once per trial; run with {@code -prof gc} to see what each
+ * lookup allocates, and with {@code -jvmArgsAppend -Xlog:gc} for the pause times the live
+ * set causes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=4g"})
+@Threads(4)
+public class EmployeeSnapshotBenchmark {
+
+    @Param({"offheap", "heap"})
+    public String store;
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    private OffHeapEmployeeTable table;
+
+    private Map<Long, EmployeeView> map;
+
+    @Setup
+    public void setup() {
+        if(store.equals("offheap")){
+            table = new OffHeapEmployeeTable(rows);
+        } else {
+            map = new HashMap<>(rows * 4 / 3 + 1);
+        }
+        for(long id = 1; id <= rows; id++){
+            EmployeeView employee = new EmployeeView(id, "First" + id, "Last" + id, "employee" + id + "@bench.example", 0L);
+            if(table != null){
+                table.load(employee);
+            } else {
+                map.put(id, employee);
+            }
+        }
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%nstore=%s rows=%d heapUsedMB=%d offHeapMB=%d%n", store, rows, heap >> 20,
+                table == null ? 0 : table.offHeapBytes() >> 20);
+    }
+
+    @Benchmark
+    public EmployeeView get() {
+        long id = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        return table != null ? table.get(id) : map.get(id);
+    }
+}
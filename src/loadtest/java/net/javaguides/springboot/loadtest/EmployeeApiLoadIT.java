@@ -0,0 +1,245 @@
+package net.javaguides.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.SpringBootTestingApplication;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives every operation of /api/employees on the real stack, embedded server and in-memory
+ * H2 included, at a fixed request rate. Prints p50/p99/p99.9, throughput and error rate per
+ * operation, writes the histograms to target/loadtest, and fails if any figure misses its
+ * budget in loadtest-slo.properties.
+ *
+ * <p>Requests go out on schedule whether or not earlier ones have returned, as independent
+ * clients would send them. Tuned with system properties: {@code loadtest.rps} (default
+ * 300), {@code loadtest.duration} and {@code loadtest.warmup} in seconds (30 and 10),
+ * {@code loadtest.mix} as weights per operation, and {@code loadtest.maxInFlight} (2000).
+ */
+public class EmployeeApiLoadIT {
+
+    private static final List<String> OPERATIONS = List.of("create", "read", "email", "list", "search", "update", "delete");
+
+    private static final int RPS = Integer.getInteger("loadtest.rps", 300);
+
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", 30);
+
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup", 10);
+
+    private static final String MIX = System.getProperty("loadtest.mix",
+            "read=50,list=10,search=5,email=5,create=15,update=10,delete=5");
+
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("loadtest.maxInFlight", 2000);
+
+    private static final int SEED_EMPLOYEES = 1000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // rows created during the run; deletes take from here so the seeded rows stay readable
+    private final ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    private final List<Long> seededIds = new ArrayList<>(SEED_EMPLOYEES);
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @DisplayName("Load test for every /api/employees operation against its latency SLO")
+    @Test
+    public void givenOperationMixAtTargetRate_whenDriven_thenEveryOperationWithinSlo() throws Exception {
+        //given = precondition or setup
+        Map<String, Integer> mix = parseMix(MIX);
+        List<String> schedule = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for(int i = 0; i < weight; i++){
+                schedule.add(operation);
+            }
+        });
+        LatencyReport report = new LatencyReport(mix.keySet());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .properties("server.port=0",
+                        "server.tomcat.max-connections=10000",
+                        "employee.ratelimit.enabled=false")
+                .run();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build();
+             ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            client = httpClient;
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/employees";
+            seed();
+
+            //when - action or behaviour that we are going to test
+            drive(requests, schedule, null, WARMUP_SECONDS);
+            long startNanos = System.nanoTime();
+            drive(requests, schedule, report, DURATION_SECONDS);
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+            //then - verify the output
+            System.out.printf("%ntarget=%d req/s duration=%ds mix=%s%n", RPS, DURATION_SECONDS, mix);
+            report.print(System.out, seconds);
+            report.writeDistributions(Path.of("target", "loadtest"));
+            report.assertWithinSlo(seconds, RPS);
+        }
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for(String entry : mix.split(",")){
+            String[] parts = entry.trim().split("=");
+            if(parts.length != 2 || !OPERATIONS.contains(parts[0])){
+                throw new IllegalArgumentException("loadtest.mix entries are operation=weight with an operation of " + OPERATIONS);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if(weight > 0){
+                weights.put(parts[0], weight);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Sends RPS * seconds requests at even intervals and waits for the last of them.
+     * {@code report} is null for the warm-up, which is not recorded.
+     */
+    private void drive(ExecutorService requests, List<String> schedule, LatencyReport report, int seconds)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        long intervalNanos = 1_000_000_000L / RPS;
+        long startNanos = System.nanoTime();
+        long total = (long) RPS * seconds;
+        for(long i = 0; i < total; i++){
+            long scheduledNanos = startNanos + i * intervalNanos;
+            long waitNanos = scheduledNanos - System.nanoTime();
+            if(waitNanos > 0){
+                LockSupport.parkNanos(waitNanos);
+            }
+            String operation = schedule.get(ThreadLocalRandom.current().nextInt(schedule.size()));
+            // only bounds client memory: time spent waiting here still counts against the request
+            inFlight.acquire();
+            requests.submit(() -> {
+                try {
+                    boolean succeeded = send(operation);
+                    if(report != null){
+                        report.record(operation, scheduledNanos, System.nanoTime(), succeeded);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+    }
+
+    private boolean send(String operation) {
+        try {
+            int seeded = ThreadLocalRandom.current().nextInt(SEED_EMPLOYEES);
+            return switch (operation) {
+                case "create" -> create();
+                case "read" -> get(baseUrl + "/" + seededIds.get(seeded)) == 200;
+                case "email" -> get(baseUrl + "?email=" + email(seeded)) == 200;
+                case "list" -> get(baseUrl + "?limit=50&after=" + (seededIds.get(seeded) - 1)) == 200;
+                case "search" -> get(baseUrl + "/search?field=lastName&q=Last" + seeded % 100) == 200;
+                case "update" -> update(seeded);
+                case "delete" -> delete();
+                default -> throw new IllegalArgumentException("Unknown operation " + operation);
+            };
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int get(String url) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        long n = sequence.incrementAndGet();
+        String body = "{\"firstName\":\"Created" + n + "\",\"lastName\":\"Load\",\"email\":\"created" + n + "@load.example\"}";
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if(response.statusCode() != 201){
+            return false;
+        }
+        createdIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        return true;
+    }
+
+    // keeps the seeded email, so concurrent updates never collide on the unique index
+    private boolean update(int seeded) throws IOException, InterruptedException {
+        String body = "{\"firstName\":\"First" + seeded + "\",\"lastName\":\"Last" + seeded + "-" + sequence.incrementAndGet()
+                + "\",\"email\":\"" + email(seeded) + "\"}";
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + seededIds.get(seeded)))
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding())
+                .statusCode() == 200;
+    }
+
+    private boolean delete() throws IOException, InterruptedException {
+        Long id = createdIds.poll();
+        // nothing created yet: an id that never exists takes the 404 path, which is still a correct answer
+        int expected = id == null ? 404 : 204;
+        long target = id == null ? Long.MAX_VALUE : id;
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + target)).DELETE().build(),
+                        HttpResponse.BodyHandlers.discarding())
+                .statusCode() == expected;
+    }
+
+    private static String email(int seeded) {
+        return "employee" + seeded + "@load.example";
+    }
+
+    private void seed() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for(int i = 0; i < SEED_EMPLOYEES; i++){
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"firstName\":\"First").append(i)
+                    .append("\",\"lastName\":\"Last").append(i)
+                    .append("\",\"email\":\"").append(email(i)).append("\"}");
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertThat(response.statusCode()).isEqualTo(200);
+        objectMapper.readTree(response.body()).get("items").forEach(item -> seededIds.add(item.get("id").asLong()));
+    }
+}
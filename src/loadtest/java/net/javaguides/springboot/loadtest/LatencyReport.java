@@ -0,0 +1,125 @@
+package net.javaguides.springboot.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.SoftAssertions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per operation of a load run, and the check of the
+ * results against the budgets in {@code loadtest-slo.properties}. Any budget can be
+ * overridden with a system property of the same name prefixed by {@code loadtest.slo.},
+ * e.g. {@code -Dloadtest.slo.read.p99=20}.
+ *
+ * <p>Latencies are recorded in microseconds from the time a request was scheduled to be
+ * sent, not from when it was, so a stalled server is charged for the requests queued
+ * behind the stall.
+ */
+class LatencyReport {
+
+    private static final String SLO_RESOURCE = "/loadtest-slo.properties";
+
+    private final Map<String, ConcurrentHistogram> latencies = new LinkedHashMap<>();
+
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+
+    private final Properties slo = new Properties();
+
+    LatencyReport(Iterable<String> operations) throws IOException {
+        for(String operation : operations){
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+        try (InputStream budgets = LatencyReport.class.getResourceAsStream(SLO_RESOURCE)) {
+            if(budgets == null){
+                throw new IllegalStateException(SLO_RESOURCE + " is missing from the load test classpath");
+            }
+            slo.load(budgets);
+        }
+    }
+
+    void record(String operation, long scheduledNanos, long completedNanos, boolean succeeded) {
+        latencies.get(operation).recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(completedNanos - scheduledNanos)));
+        if(!succeeded){
+            errors.get(operation).increment();
+        }
+    }
+
+    long totalCount() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%n%-10s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "error%", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencies.forEach((operation, histogram) -> {
+            long count = histogram.getTotalCount();
+            long failed = errors.get(operation).sum();
+            out.printf("%-10s %9d %8.1f %8d %9.3f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation, count, count / seconds, failed, count == 0 ? 0.0 : 100.0 * failed / count,
+                    millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+        });
+    }
+
+    /**
+     * Writes each histogram as a percentile distribution, which the HdrHistogram plotter reads.
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for(Map.Entry<String, ConcurrentHistogram> entry : latencies.entrySet()){
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                // recorded in microseconds, printed in milliseconds
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    void assertWithinSlo(double seconds, double targetRps) {
+        SoftAssertions softly = new SoftAssertions();
+        double maxErrorRate = budget("max-error-rate");
+        latencies.forEach((operation, histogram) -> {
+            long count = histogram.getTotalCount();
+            if(count == 0){
+                return;
+            }
+            for(String percentile : new String[]{"p50", "p99", "p999"}){
+                String key = operation + "." + percentile;
+                if(hasBudget(key)){
+                    double quantile = switch (percentile) {
+                        case "p50" -> 50;
+                        case "p99" -> 99;
+                        default -> 99.9;
+                    };
+                    softly.assertThat(millis(histogram, quantile)).as("%s latency (ms)", key).isLessThanOrEqualTo(budget(key));
+                }
+            }
+            softly.assertThat((double) errors.get(operation).sum() / count).as("%s error rate", operation)
+                    .isLessThanOrEqualTo(maxErrorRate);
+        });
+        softly.assertThat(totalCount() / seconds).as("throughput (req/s) against a target of %.0f", targetRps)
+                .isGreaterThanOrEqualTo(targetRps * budget("min-throughput-ratio"));
+        softly.assertAll();
+    }
+
+    private boolean hasBudget(String key) {
+        return System.getProperty("loadtest.slo." + key) != null || slo.getProperty(key) != null;
+    }
+
+    private double budget(String key) {
+        return Double.parseDouble(System.getProperty("loadtest.slo." + key, slo.getProperty(key)));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
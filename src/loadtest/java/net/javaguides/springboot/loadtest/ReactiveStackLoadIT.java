@@ -0,0 +1,134 @@
+package net.javaguides.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.SpringBootTestingApplication;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the same workload against the servlet (MVC + JPA) and the reactive (WebFlux + R2DBC)
+ * stack and prints, for each, the throughput, the peak thread count and the heap retained
+ * per open connection. Client and server share the JVM, so the memory figure includes the
+ * client's share of each connection; that share is the same for both stacks, so the
+ * difference between the two lines is the server's.
+ */
+public class ReactiveStackLoadIT {
+
+    private static final int CONNECTIONS = Integer.getInteger("loadtest.connections", 1000);
+
+    private static final int REQUESTS_PER_CONNECTION = Integer.getInteger("loadtest.requestsPerConnection", 20);
+
+    private static final int SEED_EMPLOYEES = 1000;
+
+    @DisplayName("Load test comparing the servlet and reactive stacks for GET /api/employees/{id}")
+    @ParameterizedTest(name = "reactive={0}")
+    @ValueSource(booleans = {false, true})
+    public void givenThousandConnections_whenGetEmployeeById_thenAllRequestsSucceed(boolean reactive) throws Exception {
+        //given = precondition or setup
+        SpringApplicationBuilder application = new SpringApplicationBuilder(SpringBootTestingApplication.class);
+        if(reactive){
+            application.profiles("reactive");
+        }
+        try (ConfigurableApplicationContext context = application
+                .properties("server.port=0",
+                        "server.tomcat.max-connections=10000",
+                        "employee.cache.enabled=false",
+                        "employee.ratelimit.enabled=false")
+                .run();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build();
+             ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/employees";
+            List<Long> ids = seed(client, connections, baseUrl, reactive ? "reactive" : "servlet");
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            System.gc();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+            threads.resetPeakThreadCount();
+
+            LongAdder succeeded = new LongAdder();
+            LongAdder failed = new LongAdder();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(CONNECTIONS);
+            for(int i = 0; i < CONNECTIONS; i++){
+                futures.add(connections.submit(() -> {
+                    start.await();
+                    for(int r = 0; r < REQUESTS_PER_CONNECTION; r++){
+                        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        (response.statusCode() == 200 ? succeeded : failed).increment();
+                    }
+                    return null;
+                }));
+            }
+
+            //when - action or behaviour that we are going to test
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for(Future<?> future : futures){
+                future.get();
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            // the client keeps its connections alive, so what survives a GC now is held per connection
+            System.gc();
+            long heapPerConnection = (memory.getHeapMemoryUsage().getUsed() - heapBefore) / CONNECTIONS;
+
+            //then - verify the output
+            System.out.printf("stack=%s connections=%d requests=%d throughput=%.0f req/s peakThreads=%d heapPerConnection=%d bytes%n",
+                    reactive ? "reactive" : "servlet", CONNECTIONS, succeeded.sum() + failed.sum(),
+                    (succeeded.sum() + failed.sum()) / seconds, threads.getPeakThreadCount(), heapPerConnection);
+            Assertions.assertThat(failed.sum()).isZero();
+            Assertions.assertThat(succeeded.sum()).isEqualTo((long) CONNECTIONS * REQUESTS_PER_CONNECTION);
+        }
+    }
+
+    // one POST per employee: the reactive stack has no batch endpoint
+    private static List<Long> seed(HttpClient client, ExecutorService executor, String baseUrl, String run) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Future<Long>> created = new ArrayList<>(SEED_EMPLOYEES);
+        for(int i = 0; i < SEED_EMPLOYEES; i++){
+            String body = "{\"firstName\":\"First" + i + "\",\"lastName\":\"Last" + i
+                    + "\",\"email\":\"" + run + i + "@load.example\"}";
+            created.add(executor.submit(() -> {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+                Assertions.assertThat(response.statusCode()).isEqualTo(201);
+                return objectMapper.readTree(response.body()).get("id").asLong();
+            }));
+        }
+        List<Long> ids = new ArrayList<>(SEED_EMPLOYEES);
+        for(Future<Long> id : created){
+            ids.add(id.get());
+        }
+        return ids;
+    }
+}
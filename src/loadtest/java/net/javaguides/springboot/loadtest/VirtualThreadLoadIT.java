@@ -0,0 +1,114 @@
+package net.javaguides.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.SpringBootTestingApplication;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds 1,000 concurrent connections open against the employee API with platform and
+ * with virtual request threads, and prints the throughput of each mode.
+ */
+public class VirtualThreadLoadIT {
+
+    private static final int CONNECTIONS = Integer.getInteger("loadtest.connections", 1000);
+
+    private static final int REQUESTS_PER_CONNECTION = Integer.getInteger("loadtest.requestsPerConnection", 20);
+
+    private static final int SEED_EMPLOYEES = 1000;
+
+    @DisplayName("Load test for GET /api/employees/{id} with 1k concurrent connections")
+    @ParameterizedTest(name = "spring.threads.virtual.enabled={0}")
+    @ValueSource(booleans = {false, true})
+    public void givenThousandConnections_whenGetEmployeeById_thenAllRequestsSucceed(boolean virtualThreads) throws Exception {
+        //given = precondition or setup
+        SpringApplicationBuilder application = new SpringApplicationBuilder(SpringBootTestingApplication.class);
+        if(virtualThreads){
+            application.profiles("virtual-threads");
+        }
+        try (ConfigurableApplicationContext context = application
+                .properties("server.port=0",
+                        "server.tomcat.max-connections=10000",
+                        "employee.cache.enabled=false",
+                        "employee.ratelimit.enabled=false")
+                .run();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build();
+             ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/employees";
+            List<Long> ids = seed(client, baseUrl);
+
+            LongAdder succeeded = new LongAdder();
+            LongAdder failed = new LongAdder();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(CONNECTIONS);
+            for(int i = 0; i < CONNECTIONS; i++){
+                futures.add(connections.submit(() -> {
+                    start.await();
+                    for(int r = 0; r < REQUESTS_PER_CONNECTION; r++){
+                        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        (response.statusCode() == 200 ? succeeded : failed).increment();
+                    }
+                    return null;
+                }));
+            }
+
+            //when - action or behaviour that we are going to test
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for(Future<?> future : futures){
+                future.get();
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+            //then - verify the output
+            System.out.printf("virtualThreads=%s connections=%d requests=%d throughput=%.0f req/s%n",
+                    virtualThreads, CONNECTIONS, succeeded.sum() + failed.sum(), (succeeded.sum() + failed.sum()) / seconds);
+            Assertions.assertThat(failed.sum()).isZero();
+            Assertions.assertThat(succeeded.sum()).isEqualTo((long) CONNECTIONS * REQUESTS_PER_CONNECTION);
+        }
+    }
+
+    private static List<Long> seed(HttpClient client, String baseUrl) throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for(int i = 0; i < SEED_EMPLOYEES; i++){
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"firstName\":\"First").append(i)
+                    .append("\",\"lastName\":\"Last").append(i)
+                    .append("\",\"email\":\"employee").append(i).append("@load.example\"}");
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertThat(response.statusCode()).isEqualTo(200);
+
+        List<Long> ids = new ArrayList<>(SEED_EMPLOYEES);
+        new ObjectMapper().readTree(response.body()).get("items").forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,121 @@
+package net.javaguides.springboot.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Size- and TTL-bounded LRU map. The removal listener is called for every entry that
+ * leaves the cache (eviction, expiry, replacement or invalidation) so secondary indexes
+ * can be kept in step.
+ *
+ * <p>Guarded by a {@link ReentrantLock} rather than {@code synchronized} so a virtual
+ * thread waiting for the cache does not pin its carrier thread.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final BiConsumer<K, V> removalListener;
+
+    // access-ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxSize, Duration ttl, BiConsumer<K, V> removalListener) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.removalListener = removalListener;
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if(entry == null){
+                misses.increment();
+                return null;
+            }
+            if(System.nanoTime() - entry.expiresAt > 0){
+                entries.remove(key);
+                evictions.increment();
+                misses.increment();
+                removalListener.accept(key, entry.value);
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            Entry<V> previous = entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            if(previous != null){
+                removalListener.accept(key, previous.value);
+            }
+            if(entries.size() > maxSize){
+                Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+                Map.Entry<K, Entry<V>> evicted = eldest.next();
+                eldest.remove();
+                evictions.increment();
+                removalListener.accept(evicted.getKey(), evicted.getValue().value);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Entry<V> removed = entries.remove(key);
+            if(removed != null){
+                removalListener.accept(key, removed.value);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private int size;
+
+    public double getHitRatio(){
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,72 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.ImportReport;
+import net.javaguides.springboot.service.EmployeeBulkService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/employees")
+public class EmployeeBulkController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private EmployeeBulkService employeeBulkService;
+
+    public EmployeeBulkController(EmployeeBulkService employeeBulkService) {
+        this.employeeBulkService = employeeBulkService;
+    }
+
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(value = "format", defaultValue = "csv") String format){
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format) {
+            case "csv" -> {
+                body = employeeBulkService::exportCsv;
+                contentType = TEXT_CSV;
+            }
+            case "ndjson" -> {
+                body = employeeBulkService::exportNdjson;
+                contentType = MediaType.APPLICATION_NDJSON;
+            }
+            default -> throw new IllegalArgumentException("Unknown export format " + format + ", expected csv or ndjson");
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("employees." + format).build().toString())
+                .body(body);
+    }
+
+    // the raw request stream is parsed as it arrives; the upload is never buffered whole
+    @PostMapping(value = "import", consumes = "text/csv")
+    public ImportReport importCsv(InputStream body) throws IOException {
+        return employeeBulkService.importCsv(body);
+    }
+
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importNdjson(InputStream body) throws IOException {
+        return employeeBulkService.importNdjson(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadArgument(IllegalArgumentException e){
+        return new ResponseEntity<>(e.getMessage(),HttpStatus.BAD_REQUEST);
+    }
+}
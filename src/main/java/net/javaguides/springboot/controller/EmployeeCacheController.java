@@ -0,0 +1,25 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.cache.CacheStats;
+import net.javaguides.springboot.service.impl.CachingEmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache/employees")
+@ConditionalOnProperty(name = "employee.cache.enabled", havingValue = "true")
+public class EmployeeCacheController {
+
+    private CachingEmployeeService cachingEmployeeService;
+
+    public EmployeeCacheController(CachingEmployeeService cachingEmployeeService) {
+        this.cachingEmployeeService = cachingEmployeeService;
+    }
+
+    @GetMapping
+    public CacheStats getStats(){
+        return cachingEmployeeService.getStats();
+    }
+}
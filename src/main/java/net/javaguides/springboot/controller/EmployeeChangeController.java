@@ -0,0 +1,60 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.event.EmployeeChange;
+import net.javaguides.springboot.event.EmployeeChangeBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/employees/changes")
+public class EmployeeChangeController {
+
+    private EmployeeChangeBus changeBus;
+
+    private Duration timeout;
+
+    public EmployeeChangeController(EmployeeChangeBus changeBus,
+                                    @Value("${employee.changes.timeout:30m}") Duration timeout) {
+        this.changeBus = changeBus;
+        this.timeout = timeout;
+    }
+
+    // EventSource clients resend the id of the last event they got as Last-Event-ID when they reconnect
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        EmployeeChangeBus.Subscription subscription = changeBus.subscribe(lastEventId, new EmployeeChangeBus.ChangeSink() {
+            @Override
+            public void send(EmployeeChange change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(change.getEventId())
+                        .name(change.getType().name())
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void resync(String eventId) throws IOException {
+                emitter.send(SseEmitter.event().id(eventId).name("RESYNC").data(eventId));
+            }
+
+            @Override
+            public void dropped() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+}
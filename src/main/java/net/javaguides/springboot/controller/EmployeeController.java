@@ -1,22 +1,51 @@
 package net.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangeCounter;
+import net.javaguides.springboot.exception.DuplicateEmailException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    private static final long NO_VERSION = -1;
+
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private ObjectMapper objectMapper;
+
+    private EmployeeChangeCounter changeCounter;
+
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              EmployeeChangeCounter changeCounter) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.changeCounter = changeCounter;
     }
 
     @PostMapping
@@ -25,37 +54,207 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("batch")
+    public BatchResult createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
+    @PutMapping("batch")
+    public BatchResult updateEmployees(@RequestBody List<Employee> employees){
+        return employeeService.updateEmployees(employees);
+    }
+
+    @DeleteMapping("batch")
+    public BatchResult deleteEmployees(@RequestBody List<Long> employeeIds){
+        return employeeService.deleteEmployees(employeeIds);
+    }
+
+    // the tag is taken before the rows are read, so it can lag the body but never run ahead of it
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<EmployeeView>> getAllEmployees(WebRequest request){
+        String tag = changeCounter.currentTag();
+        if(request.checkNotModified(tag)){
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(employeeService.getAllEmployees());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<EmployeePage> getEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                     @RequestParam("limit") int limit,
+                                                     WebRequest request){
+        String tag = changeCounter.currentTag();
+        if(request.checkNotModified(tag)){
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(employeeService.getEmployees(after, limit));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployees(){
+        StreamingResponseBody body = outputStream -> employeeService.streamEmployees(employee -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(employee));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("search")
+    public EmployeeSearchPage searchEmployees(@RequestParam("q") String query,
+                                              @RequestParam(value = "field", defaultValue = "lastName") String field,
+                                              @RequestParam(value = "page", defaultValue = "0") int page,
+                                              @RequestParam(value = "size", defaultValue = "20") int size){
+        return employeeService.searchEmployees(EmployeeSearchField.fromParameter(field), query, page, size);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<EmployeeView> getEmployeeByEmail(@RequestParam("email") String email){
+        return employeeService.getEmployeeByEmail(email)
+                .map(employee -> ResponseEntity.ok().eTag(versionTag(employee.getVersion())).body(employee))
+                .orElseGet(()-> ResponseEntity.notFound().build());
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
+    public ResponseEntity<EmployeeView> getEmployeeById(@PathVariable("id") long employeeId, WebRequest request){
+        // a revalidating poll only reads the version column; the body is loaded only when it changed
+        if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null){
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if(version.isPresent() && request.checkNotModified(versionTag(version.get()))){
+                return null;
+            }
+        }
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok().eTag(versionTag(employee.getVersion())).body(employee))
                 .orElseGet(()-> ResponseEntity.notFound().build());
     }
 
+    // answers with the updated employee as before; the row is read back in the UPDATE's transaction
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updatedEmployee(@PathVariable("id") long employeeId,@RequestBody Employee employee){
+    public ResponseEntity<EmployeeView> updatedEmployee(@PathVariable("id") long employeeId,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @RequestBody EmployeeUpdate employee){
+        if(!employee.isComplete()){
+            return ResponseEntity.badRequest().build();
+        }
+        if(ifMatch != null){
+            Long version = ifMatchVersion(ifMatch);
+            if(version != null){
+                employee.setVersion(version);
+            }
+        }
+        Optional<EmployeeView> updatedEmployee;
+        try {
+            updatedEmployee = employeeService.updateEmployeeAndGet(employeeId, employee);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if(ifMatch == null){
+                throw e;
+            }
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if(updatedEmployee.isEmpty()){
+            return ifMatch == null
+                    ? ResponseEntity.notFound().build()
+                    : ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return ResponseEntity.ok().eTag(versionTag(updatedEmployee.get().getVersion())).body(updatedEmployee.get());
+    }
 
-        return employeeService.getEmployeeById(employeeId)
-                .map((savedEmployee) -> {
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody EmployeeUpdate patch){
+        return applyUpdate(employeeId, patch, ifMatch);
+    }
 
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee,HttpStatus.OK);
-                })
-                .orElseGet(()->ResponseEntity.notFound().build());
+    private ResponseEntity<Void> applyUpdate(long employeeId, EmployeeUpdate patch, String ifMatch){
+        if(ifMatch == null){
+            return employeeService.updateEmployee(employeeId, patch)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        }
+        // the tag becomes the version condition of the UPDATE itself, so nothing slips in between check and write
+        Long version = ifMatchVersion(ifMatch);
+        if(version != null){
+            patch.setVersion(version);
+        }
+        try {
+            if(!employeeService.updateEmployee(employeeId, patch)){
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        // every UPDATE bumps the version by exactly one
+        return version == null
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.noContent().eTag(versionTag(version + 1)).build();
     }
 
+    // idempotent: a repeated DELETE gets 404 instead of an error, and nothing changes
     @DeleteMapping("{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
-        employeeService.deleteEmployee(employeeId);
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") long employeeId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if(ifMatch == null){
+            return employeeService.deleteEmployee(employeeId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        }
+        return deleteIfMatch(employeeId, ifMatch)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    private boolean deleteIfMatch(long employeeId, String ifMatch){
+        Long version = ifMatchVersion(ifMatch);
+        if(version == null){
+            version = employeeService.getEmployeeVersion(employeeId).orElse(NO_VERSION);
+        }
+        try {
+            return employeeService.deleteEmployee(employeeId, version);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return false;
+        }
+    }
+
+    private static String versionTag(long version){
+        return "\"" + version + "\"";
+    }
+
+    // If-Match compares strongly: a weak, malformed or foreign tag maps to a version no row has.
+    // Only a single tag is supported; "*" returns null and leaves the version unchecked.
+    private static Long ifMatchVersion(String ifMatch){
+        String tag = ifMatch.trim();
+        if(tag.equals("*")){
+            return null;
+        }
+        if(tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")){
+            return NO_VERSION;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleStaleVersion(ObjectOptimisticLockingFailureException e){
+        return new ResponseEntity<>("Employee was modified concurrently, reload and retry",HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleConstraintViolation(DataIntegrityViolationException e){
+        return DuplicateEmailException.isEmailConflict(e)
+                ? new ResponseEntity<>("Employee already exist with given Email",HttpStatus.CONFLICT)
+                : new ResponseEntity<>("Employee violates a data constraint",HttpStatus.BAD_REQUEST);
+    }
 
-        return new ResponseEntity<String>("Employee deleted successfully",HttpStatus.OK);
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadArgument(IllegalArgumentException e){
+        return new ResponseEntity<>(e.getMessage(),HttpStatus.BAD_REQUEST);
     }
 }
@@ -0,0 +1,62 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.IngestStatus;
+import net.javaguides.springboot.ingest.EmployeeIngestQueue;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+/**
+ * Asynchronous creation, chosen per request with the {@code respond-async} preference (see
+ * {@link RespondAsyncCondition}); requests without it still go to
+ * {@link EmployeeController#createEmployee}.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/employees")
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+public class EmployeeIngestController {
+
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+
+    private EmployeeIngestQueue ingestQueue;
+
+    public EmployeeIngestController(EmployeeIngestQueue ingestQueue) {
+        this.ingestQueue = ingestQueue;
+    }
+
+    @RespondAsync
+    @PostMapping
+    public ResponseEntity<IngestStatus> enqueueEmployee(@RequestBody Employee employee){
+        // rejected up front so a client never has to poll for a request that could not succeed
+        if(employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null){
+            return ResponseEntity.badRequest().build();
+        }
+        return ingestQueue.submit(employee)
+                .map(status -> ResponseEntity.accepted()
+                        .header(PREFERENCE_APPLIED_HEADER, RespondAsyncCondition.RESPOND_ASYNC)
+                        .location(URI.create("/api/employees/ingest/" + status.getTrackingId()))
+                        .body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable("trackingId") String trackingId){
+        return ingestQueue.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
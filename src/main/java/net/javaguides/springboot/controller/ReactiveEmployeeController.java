@@ -0,0 +1,220 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangeCounter;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux version of {@link EmployeeController} for the {@code reactive} profile, with the
+ * same paths, status codes and ETags. Batch writes, the change stream, bulk export/import
+ * and asynchronous ingest are only served by the servlet stack.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+    private static final long NO_VERSION = -1;
+
+    private ReactiveEmployeeService employeeService;
+
+    private EmployeeChangeCounter changeCounter;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService, EmployeeChangeCounter changeCounter) {
+        this.employeeService = employeeService;
+        this.changeCounter = changeCounter;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<EmployeeView> createEmployee(@RequestBody Employee employee){
+        return employeeService.saveEmployee(employee);
+    }
+
+    // the array is written element by element as rows arrive, never collected into a list first.
+    // JSON only: the CBOR encoder cannot stream a Flux, and the binary formats are served by the servlet stack
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Flux<EmployeeView>> getAllEmployees(ServerWebExchange exchange){
+        String tag = changeCounter.currentTag();
+        if(exchange.checkNotModified(tag)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        return ResponseEntity.ok().eTag(tag).body(employeeService.getAllEmployees());
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<EmployeePage>> getEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                           @RequestParam("limit") int limit,
+                                                           ServerWebExchange exchange){
+        String tag = changeCounter.currentTag();
+        if(exchange.checkNotModified(tag)){
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build());
+        }
+        return employeeService.getEmployees(after, limit)
+                .map(page -> ResponseEntity.ok().eTag(tag).body(page));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<EmployeeView> streamEmployees(){
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping("search")
+    public Mono<EmployeeSearchPage> searchEmployees(@RequestParam("q") String query,
+                                                    @RequestParam(value = "field", defaultValue = "lastName") String field,
+                                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                                    @RequestParam(value = "size", defaultValue = "20") int size){
+        return employeeService.searchEmployees(EmployeeSearchField.fromParameter(field), query, page, size);
+    }
+
+    @GetMapping(params = "email")
+    public Mono<ResponseEntity<EmployeeView>> getEmployeeByEmail(@RequestParam("email") String email){
+        return employeeService.getEmployeeByEmail(email)
+                .map(employee -> ResponseEntity.ok().eTag(versionTag(employee.getVersion())).body(employee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<EmployeeView>> getEmployeeById(@PathVariable("id") long employeeId, ServerWebExchange exchange){
+        Mono<ResponseEntity<EmployeeView>> body = employeeService.getEmployeeById(employeeId)
+                .map(employee -> ResponseEntity.ok().eTag(versionTag(employee.getVersion())).body(employee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+        if(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH) == null){
+            return body;
+        }
+        // a revalidating poll only reads the version column; the body is loaded only when it changed
+        return employeeService.getEmployeeVersion(employeeId)
+                .filter(version -> exchange.checkNotModified(versionTag(version)))
+                .map(version -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versionTag(version)).<EmployeeView>build())
+                .switchIfEmpty(body);
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<EmployeeView>> updatedEmployee(@PathVariable("id") long employeeId,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                              @RequestBody EmployeeUpdate employee){
+        if(!employee.isComplete()){
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if(ifMatch != null){
+            Long version = ifMatchVersion(ifMatch);
+            if(version != null){
+                employee.setVersion(version);
+            }
+        }
+        Mono<ResponseEntity<EmployeeView>> body = employeeService.updateEmployeeAndGet(employeeId, employee)
+                .map(updated -> ResponseEntity.ok().eTag(versionTag(updated.getVersion())).body(updated))
+                .defaultIfEmpty(ifMatch == null
+                        ? ResponseEntity.notFound().build()
+                        : ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+        // without If-Match a lost race is a conflict, answered by handleStaleVersion
+        return ifMatch == null
+                ? body
+                : body.onErrorReturn(ObjectOptimisticLockingFailureException.class,
+                        ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+    }
+
+    @PatchMapping("{id}")
+    public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable("id") long employeeId,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestBody EmployeeUpdate patch){
+        return applyUpdate(employeeId, patch, ifMatch);
+    }
+
+    private Mono<ResponseEntity<Void>> applyUpdate(long employeeId, EmployeeUpdate patch, String ifMatch){
+        if(ifMatch == null){
+            return employeeService.updateEmployee(employeeId, patch)
+                    .map(updated -> updated
+                            ? ResponseEntity.noContent().<Void>build()
+                            : ResponseEntity.notFound().<Void>build());
+        }
+        Long version = ifMatchVersion(ifMatch);
+        if(version != null){
+            patch.setVersion(version);
+        }
+        return employeeService.updateEmployee(employeeId, patch)
+                .map(updated -> {
+                    if(!updated){
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Void>build();
+                    }
+                    // every UPDATE bumps the version by exactly one
+                    return version == null
+                            ? ResponseEntity.noContent().<Void>build()
+                            : ResponseEntity.noContent().eTag(versionTag(version + 1)).<Void>build();
+                })
+                .onErrorReturn(ObjectOptimisticLockingFailureException.class,
+                        ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable("id") long employeeId,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if(ifMatch == null){
+            return employeeService.deleteEmployee(employeeId)
+                    .map(deleted -> deleted
+                            ? ResponseEntity.noContent().<Void>build()
+                            : ResponseEntity.notFound().<Void>build());
+        }
+        Long version = ifMatchVersion(ifMatch);
+        Mono<Long> expected = version != null
+                ? Mono.just(version)
+                : employeeService.getEmployeeVersion(employeeId).defaultIfEmpty(NO_VERSION);
+        return expected
+                .flatMap(expectedVersion -> employeeService.deleteEmployee(employeeId, expectedVersion))
+                .onErrorReturn(ObjectOptimisticLockingFailureException.class, false)
+                .map(deleted -> deleted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Void>build());
+    }
+
+    private static String versionTag(long version){
+        return "\"" + version + "\"";
+    }
+
+    // same parsing as EmployeeController: a weak, malformed or foreign tag maps to a version no row has
+    private static Long ifMatchVersion(String ifMatch){
+        String tag = ifMatch.trim();
+        if(tag.equals("*")){
+            return null;
+        }
+        if(tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")){
+            return NO_VERSION;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<String> handleDuplicateEmail(DuplicateEmailException e){
+        return new ResponseEntity<>("Employee already exist with given Email",HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleStaleVersion(ObjectOptimisticLockingFailureException e){
+        return new ResponseEntity<>("Employee was modified concurrently, reload and retry",HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadArgument(IllegalArgumentException e){
+        return new ResponseEntity<>(e.getMessage(),HttpStatus.BAD_REQUEST);
+    }
+}
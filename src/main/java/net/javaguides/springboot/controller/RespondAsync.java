@@ -0,0 +1,17 @@
+package net.javaguides.springboot.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a handler method only to requests whose {@code Prefer} header asks for
+ * {@code respond-async}; see {@link RespondAsyncCondition}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RespondAsync {
+}
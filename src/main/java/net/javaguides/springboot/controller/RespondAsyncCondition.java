@@ -0,0 +1,80 @@
+package net.javaguides.springboot.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+
+/**
+ * Matches requests that carry the {@code respond-async} preference (RFC 7240) anywhere in
+ * their {@code Prefer} headers, e.g. {@code Prefer: respond-async, wait=5} or a second
+ * {@code Prefer} header. A {@code headers = "Prefer=respond-async"} mapping only matches the
+ * header value as a whole, so such requests silently fell through to the synchronous handler.
+ *
+ * <p>A mapping with this condition is more specific than the same mapping without it, so it
+ * wins whenever both match.
+ */
+public final class RespondAsyncCondition implements RequestCondition<RespondAsyncCondition> {
+
+    static final String PREFER_HEADER = "Prefer";
+
+    static final String RESPOND_ASYNC = "respond-async";
+
+    static final RespondAsyncCondition INSTANCE = new RespondAsyncCondition();
+
+    private RespondAsyncCondition() {
+    }
+
+    @Override
+    public RespondAsyncCondition combine(RespondAsyncCondition other) {
+        return this;
+    }
+
+    @Override
+    public RespondAsyncCondition getMatchingCondition(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(PREFER_HEADER);
+        return values != null && prefersRespondAsync(Collections.list(values)) ? this : null;
+    }
+
+    @Override
+    public int compareTo(RespondAsyncCondition other, HttpServletRequest request) {
+        return 0;
+    }
+
+    /**
+     * Each header value is a comma-separated list of preferences, each a token optionally
+     * followed by {@code =value} and {@code ;parameters}; tokens compare case-insensitively.
+     */
+    static boolean prefersRespondAsync(Collection<String> headerValues) {
+        for(String headerValue : headerValues){
+            for(String preference : headerValue.split(",")){
+                String token = preference;
+                int end = indexOfAny(token, '=', ';');
+                if(end >= 0){
+                    token = token.substring(0, end);
+                }
+                if(token.trim().toLowerCase(Locale.ROOT).equals(RESPOND_ASYNC)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        for(int i = 0; i < value.length(); i++){
+            if(value.charAt(i) == first || value.charAt(i) == second){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + PREFER_HEADER + " contains " + RESPOND_ASYNC + "]";
+    }
+}
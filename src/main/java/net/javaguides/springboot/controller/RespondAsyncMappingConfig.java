@@ -0,0 +1,34 @@
+package net.javaguides.springboot.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+/**
+ * Teaches the MVC handler mapping about {@link RespondAsync}. Boot still configures the
+ * mapping as usual; only the custom condition of annotated methods is added.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RespondAsyncMappingConfig {
+
+    @Bean
+    public WebMvcRegistrations respondAsyncRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new RequestMappingHandlerMapping() {
+                    @Override
+                    protected RequestCondition<?> getCustomMethodCondition(Method method) {
+                        return method.isAnnotationPresent(RespondAsync.class) ? RespondAsyncCondition.INSTANCE : null;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package net.javaguides.springboot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured datasource with a primary and a replica pool behind a
+ * read/write router. Enabled by the {@code replica} profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("employee.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @ConfigurationProperties("employee.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    public ReplicaLagTracker replicaLagTracker(@Value("${employee.datasource.routing.max-replica-lag:1s}") Duration maxReplicaLag) {
+        return new ReplicaLagTracker(maxReplicaLag);
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagTracker replicaLagTracker) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaLagTracker);
+        routingDataSource.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // the primary tables are created by Hibernate, so linking waits for the entity manager factory
+    @Bean
+    @DependsOn("entityManagerFactory")
+    @ConditionalOnProperty(name = "employee.datasource.routing.link-h2-replica", havingValue = "true")
+    public H2ReplicaLinker h2ReplicaLinker(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                           @Qualifier("primaryDataSource") HikariDataSource primaryDataSource) {
+        return new H2ReplicaLinker(replicaDataSource, primaryDataSource.getJdbcUrl(),
+                primaryDataSource.getUsername(), primaryDataSource.getPassword());
+    }
+}
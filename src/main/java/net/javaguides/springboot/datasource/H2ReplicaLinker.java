@@ -0,0 +1,48 @@
+package net.javaguides.springboot.datasource;
+
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Local stand-in for replication between two in-memory H2 databases: the replica gets a
+ * read-only linked table for each primary table, so it serves the primary's rows through
+ * its own connections and pool. Must run after the primary schema exists.
+ */
+public class H2ReplicaLinker implements InitializingBean {
+
+    private static final String[] TABLES = {"EMPLOYEES"};
+
+    private DataSource replica;
+
+    private String primaryUrl;
+
+    private String primaryUsername;
+
+    private String primaryPassword;
+
+    public H2ReplicaLinker(DataSource replica, String primaryUrl, String primaryUsername, String primaryPassword) {
+        this.replica = replica;
+        this.primaryUrl = primaryUrl;
+        this.primaryUsername = primaryUsername;
+        this.primaryPassword = primaryPassword;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            for(String table : TABLES){
+                statement.execute("CREATE LINKED TABLE IF NOT EXISTS " + table + "('org.h2.Driver', " +
+                        literal(primaryUrl) + ", " + literal(primaryUsername) + ", " + literal(primaryPassword) + ", " +
+                        literal(table) + ") READONLY");
+            }
+        }
+    }
+
+    private static String literal(String value) {
+        return "'" + (value == null ? "" : value.replace("'", "''")) + "'";
+    }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Only
+ * correct behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager asks for a connection before it marks the transaction read-only,
+ * and the proxy holds the lookup back until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagTracker lagTracker;
+
+    public ReadWriteRoutingDataSource(ReplicaLagTracker lagTracker) {
+        this.lagTracker = lagTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagTracker.isReplicaCaughtUp()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,43 @@
+package net.javaguides.springboot.datasource;
+
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether the replica can be trusted to have seen the latest write. After every
+ * committed change the replica is assumed to trail for up to {@code maxLag}; reads in that
+ * window go to the primary, so a client always reads its own writes.
+ *
+ * <p>The window is global rather than per client: it costs some replica offload during
+ * write bursts, but needs no session affinity.
+ */
+public class ReplicaLagTracker {
+
+    private final long maxLagNanos;
+
+    private final LongSupplier nanoClock;
+
+    private volatile long lastWriteNanos;
+
+    public ReplicaLagTracker(Duration maxLag) {
+        this(maxLag, System::nanoTime);
+    }
+
+    ReplicaLagTracker(Duration maxLag, LongSupplier nanoClock) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.nanoClock = nanoClock;
+        this.lastWriteNanos = nanoClock.getAsLong() - maxLagNanos;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lastWriteNanos = nanoClock.getAsLong();
+    }
+
+    public boolean isReplicaCaughtUp() {
+        return nanoClock.getAsLong() - lastWriteNanos >= maxLagNanos;
+    }
+}
@@ -0,0 +1,39 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single item of a batch request. {@code index} is the position of the
+ * item in the request body.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, FAILED
+    }
+
+    private int index;
+
+    private Long id;
+
+    private Status status;
+
+    private String error;
+
+    public static BatchItemResult success(int index, long id, Status status){
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult failure(int index, Long id, Status status, String error){
+        return new BatchItemResult(index, id, status, error);
+    }
+
+    public boolean isSucceeded(){
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
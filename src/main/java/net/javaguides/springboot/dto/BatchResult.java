@@ -0,0 +1,24 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResult {
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BatchItemResult> items;
+
+    public static BatchResult of(List<BatchItemResult> items){
+        int succeeded = (int) items.stream().filter(BatchItemResult::isSucceeded).count();
+        return new BatchResult(succeeded, items.size() - succeeded, items);
+    }
+}
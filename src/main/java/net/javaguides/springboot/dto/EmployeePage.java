@@ -0,0 +1,21 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of employees. {@code nextCursor} is the id to pass as {@code after}
+ * to fetch the following page, or {@code null} when this is the last page.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeePage {
+
+    private List<EmployeeView> content;
+
+    private Long nextCursor;
+}
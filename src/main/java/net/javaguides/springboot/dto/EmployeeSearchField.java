@@ -0,0 +1,22 @@
+package net.javaguides.springboot.dto;
+
+import java.util.Arrays;
+
+public enum EmployeeSearchField {
+
+    FIRST_NAME("firstName"), LAST_NAME("lastName"), EMAIL("email");
+
+    private final String parameter;
+
+    EmployeeSearchField(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public static EmployeeSearchField fromParameter(String parameter){
+        return Arrays.stream(values())
+                .filter(field -> field.parameter.equals(parameter))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported search field "+parameter
+                        +", expected one of firstName, lastName, email"));
+    }
+}
@@ -0,0 +1,25 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of search results. There is deliberately no total count: counting every
+ * prefix match would cost the full index range scan the search is meant to avoid.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSearchPage {
+
+    private List<EmployeeView> content;
+
+    private int page;
+
+    private int size;
+
+    private boolean hasNext;
+}
@@ -0,0 +1,31 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Body of PUT and PATCH /api/employees/{id}. Null fields are left unchanged; a non-null
+ * {@code version} makes the update conditional on the row still having that version.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeUpdate {
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+
+    public boolean isComplete(){
+        return firstName != null && lastName != null && email != null;
+    }
+}
@@ -0,0 +1,32 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import net.javaguides.springboot.model.Employee;
+
+/**
+ * Read-only projection of an employee, selected column by column instead of loading a
+ * managed entity. This is what read endpoints return: no persistence context, no dirty
+ * checking snapshot, and nothing lazy left for Jackson to trigger.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeView {
+
+    private long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private long version;
+
+    public static EmployeeView of(Employee employee){
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+}
@@ -0,0 +1,25 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first rejected rows are listed, so the report stays
+ * small however bad the upload is; {@code failed} always has the full count.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReport {
+
+    private long rows;
+
+    private long created;
+
+    private long failed;
+
+    private List<ImportRowError> errors;
+}
@@ -0,0 +1,19 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A rejected row of an import. {@code row} is the 1-based position of the record in the
+ * upload, not counting the CSV header.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+
+    private long row;
+
+    private String error;
+}
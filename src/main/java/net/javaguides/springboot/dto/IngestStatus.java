@@ -0,0 +1,37 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an employee accepted for asynchronous creation. {@code id} is set once the
+ * employee has been written, {@code error} once it has been rejected.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestStatus {
+
+    public enum State {
+        QUEUED, CREATED, FAILED
+    }
+
+    private String trackingId;
+
+    private State state;
+
+    private Long id;
+
+    private String error;
+
+    public static IngestStatus queued(String trackingId){
+        return new IngestStatus(trackingId, State.QUEUED, null, null);
+    }
+
+    public static IngestStatus of(String trackingId, BatchItemResult result){
+        return result.isSucceeded()
+                ? new IngestStatus(trackingId, State.CREATED, result.getId(), null)
+                : new IngestStatus(trackingId, State.FAILED, null, result.getError());
+    }
+}
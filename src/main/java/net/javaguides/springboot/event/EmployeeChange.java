@@ -0,0 +1,26 @@
+package net.javaguides.springboot.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.dto.EmployeeView;
+
+/**
+ * One entry of the change stream. {@code eventId} is what clients send back as
+ * {@code Last-Event-ID} to resume after it.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeChange {
+
+    private String eventId;
+
+    @JsonIgnore
+    private long offset;
+
+    private EmployeeChangedEvent.Type type;
+
+    private long id;
+
+    private EmployeeView employee;
+}
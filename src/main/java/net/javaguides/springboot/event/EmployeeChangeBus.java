@@ -0,0 +1,302 @@
+package net.javaguides.springboot.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process fan-out of committed employee changes. Every change gets the next offset and
+ * is kept in a fixed-size ring buffer, so a subscriber that reconnects with the id of the
+ * last change it saw is replayed everything after it, as long as that is still retained.
+ *
+ * <p>Publishing never blocks on a subscriber: each one has a bounded queue, and a subscriber
+ * whose queue is full is dropped rather than buffered without limit. It can reconnect and
+ * resume from its last event id.
+ *
+ * <p>Queues are drained on virtual threads owned by the bus, not on the shared
+ * {@code applicationTaskExecutor}: a send blocked on a stalled client then parks a virtual
+ * thread instead of holding a pool thread that {@code @Async} work needs. A subscriber whose
+ * send has not returned after {@code employee.changes.send-timeout} is dropped: nothing more
+ * is queued for it, and its sink is told so it can close the stream.
+ */
+@Component
+public class EmployeeChangeBus implements AutoCloseable {
+
+    /**
+     * Receives the changes of one subscription, always from a single thread at a time.
+     */
+    public interface ChangeSink {
+
+        void send(EmployeeChange change) throws IOException;
+
+        /**
+         * The requested position is no longer retained (or belongs to an earlier run of the
+         * application). The client has to reload and resume after {@code eventId}.
+         */
+        void resync(String eventId) throws IOException;
+
+        /**
+         * The subscriber fell too far behind and has been unsubscribed.
+         */
+        void dropped();
+    }
+
+    // offsets restart with the application, so ids carry the start time to tell runs apart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final EmployeeChange[] buffer;
+
+    private final int subscriberQueueSize;
+
+    private final Executor executor;
+
+    private final long sendTimeoutNanos;
+
+    private final LongSupplier nanoClock;
+
+    // only set by the public constructor; tests call expireStalledSends themselves
+    private ScheduledExecutorService watchdog;
+
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+
+    // orders publishing against subscribing, so a new subscriber sees neither gaps nor duplicates
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long lastOffset;
+
+    @Autowired
+    public EmployeeChangeBus(@Value("${employee.changes.buffer-size:10000}") int bufferSize,
+                             @Value("${employee.changes.subscriber-queue-size:1000}") int subscriberQueueSize,
+                             @Value("${employee.changes.send-timeout:10s}") Duration sendTimeout) {
+        this(bufferSize, subscriberQueueSize, Executors.newVirtualThreadPerTaskExecutor(), sendTimeout, System::nanoTime);
+        long checkMillis = Math.max(100, sendTimeout.toMillis() / 2);
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-changes-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::expireStalledSends, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    EmployeeChangeBus(int bufferSize, int subscriberQueueSize, Executor executor, Duration sendTimeout,
+                      LongSupplier nanoClock) {
+        this.buffer = new EmployeeChange[bufferSize];
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.executor = executor;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lock.lock();
+        try {
+            long offset = ++lastOffset;
+            EmployeeChange change = new EmployeeChange(eventId(offset), offset, event.getType(),
+                    event.getId(), event.getEmployee());
+            buffer[slot(offset)] = change;
+            for(Subscription subscription : subscribers){
+                subscription.deliver(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param lastEventId id of the last change the client has seen, or {@code null} to
+     *                    receive only changes published from now on
+     */
+    public Subscription subscribe(String lastEventId, ChangeSink sink) {
+        lock.lock();
+        try {
+            Subscription subscription = new Subscription(sink);
+            if(lastEventId != null){
+                long after = parseOffset(lastEventId);
+                long oldest = Math.max(1, lastOffset - buffer.length + 1);
+                if(after < oldest - 1 || after > lastOffset){
+                    subscription.resyncAt = eventId(lastOffset);
+                } else {
+                    // the replay is let through on top of the regular queue bound
+                    for(long offset = after + 1; offset <= lastOffset; offset++){
+                        subscription.pending.add(buffer[slot(offset)]);
+                        subscription.queued.incrementAndGet();
+                    }
+                    subscription.limit += (int) (lastOffset - after);
+                }
+            }
+            subscribers.add(subscription);
+            subscription.schedule();
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Drops every subscriber whose current send has been blocked for longer than the send
+     * timeout. Only the flags are flipped here; the sink is told on the executor, since
+     * closing a stream can wait on the very write that is stuck.
+     */
+    void expireStalledSends() {
+        long now = nanoClock.getAsLong();
+        for(Subscription subscription : subscribers){
+            long startedAt = subscription.sendStartedAt;
+            if(startedAt != 0 && now - startedAt > sendTimeoutNanos){
+                subscription.overflowed = true;
+                subscription.cancel();
+                executor.execute(subscription::notifyDropped);
+            }
+        }
+    }
+
+    // no interrupt: a send in progress either completes or fails once its stream is closed
+    @Override
+    public void close() {
+        if(watchdog != null){
+            watchdog.shutdown();
+        }
+        if(executor instanceof ExecutorService executorService){
+            executorService.shutdown();
+        }
+    }
+
+    private int slot(long offset) {
+        return (int) (offset % buffer.length);
+    }
+
+    private String eventId(long offset) {
+        return epoch + ":" + offset;
+    }
+
+    // ids from another run or that do not parse map to -1, which is never retained
+    private long parseOffset(String eventId) {
+        int separator = eventId.indexOf(':');
+        if(separator < 0 || !eventId.substring(0, separator).equals(epoch)){
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public final class Subscription implements Runnable {
+
+        private final ChangeSink sink;
+
+        private final Queue<EmployeeChange> pending = new ConcurrentLinkedQueue<>();
+
+        // ConcurrentLinkedQueue.size() walks the queue, so the bound is tracked separately
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private int limit = subscriberQueueSize;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile String resyncAt;
+
+        private volatile boolean overflowed;
+
+        private final AtomicBoolean dropNotified = new AtomicBoolean();
+
+        private volatile boolean cancelled;
+
+        // when the send in progress started, or 0 while none is
+        private volatile long sendStartedAt;
+
+        private Subscription(ChangeSink sink) {
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscribers.remove(this);
+        }
+
+        // called with the bus lock held, so it must only enqueue
+        private void deliver(EmployeeChange change) {
+            if(queued.incrementAndGet() > limit){
+                overflowed = true;
+                cancelled = true;
+                subscribers.remove(this);
+            } else {
+                pending.add(change);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if(scheduled.compareAndSet(false, true)){
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if(overflowed){
+                    pending.clear();
+                    notifyDropped();
+                    return;
+                }
+                if(resyncAt != null){
+                    sendStartedAt = startClock();
+                    sink.resync(resyncAt);
+                    resyncAt = null;
+                }
+                EmployeeChange change;
+                while(!cancelled && (change = pending.poll()) != null){
+                    sendStartedAt = startClock();
+                    sink.send(change);
+                    queued.decrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                // the client went away; it resumes from its last event id when it reconnects
+                cancel();
+            } finally {
+                sendStartedAt = 0;
+                scheduled.set(false);
+            }
+            // a change may have been queued after the last poll but before the flag was released
+            if((!cancelled && !pending.isEmpty()) || (overflowed && !dropNotified.get())){
+                schedule();
+            }
+        }
+
+        // the watchdog and the drain loop can both get here
+        private void notifyDropped() {
+            if(dropNotified.compareAndSet(false, true)){
+                sink.dropped();
+            }
+        }
+
+        // 0 marks "no send in progress", so a clock reading of exactly 0 is nudged
+        private long startClock() {
+            long now = nanoClock.getAsLong();
+            return now == 0 ? 1 : now;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package net.javaguides.springboot.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Table-level change counter backing the collection ETag. It is bumped after the writing
+ * transaction commits, so a reader that takes the tag before loading the rows can at worst
+ * pair newer rows with an older tag, which only costs the client one extra full response.
+ */
+@Component
+public class EmployeeChangeCounter {
+
+    // a restart resets the counter, so the tag also carries the start time to never repeat one
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong changes = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    public String currentTag() {
+        return epoch + "-" + changes.get();
+    }
+}
@@ -0,0 +1,25 @@
+package net.javaguides.springboot.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.dto.EmployeeView;
+
+/**
+ * Published by the service after every successful write. {@code employee} is the state after
+ * the change when the service already has it in hand, and {@code null} for deletes and for
+ * updates issued as a single UPDATE statement.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Type type;
+
+    private long id;
+
+    private EmployeeView employee;
+}
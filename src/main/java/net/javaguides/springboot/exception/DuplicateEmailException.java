@@ -0,0 +1,31 @@
+package net.javaguides.springboot.exception;
+
+import net.javaguides.springboot.model.Employee;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Locale;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateEmailException extends ResourceNotFoundException{
+
+    public DuplicateEmailException(String email){
+        super("Employee already exist with given Email "+email);
+    }
+
+    public DuplicateEmailException(String email,Throwable cause){
+        super("Employee already exist with given Email "+email,cause);
+    }
+
+    public static boolean isEmailConflict(DataIntegrityViolationException e){
+        if(e.getCause() instanceof ConstraintViolationException violation){
+            return violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_INDEX);
+        }
+        // R2DBC drivers only name the violated index in their message
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_INDEX);
+    }
+}
@@ -0,0 +1,199 @@
+package net.javaguides.springboot.ingest;
+
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.shard.ShardContext;
+import net.javaguides.springboot.shard.ShardRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+
+/**
+ * First stage of a bulk import: takes a window of parsed rows and returns the ones that can
+ * be inserted as they are, with the reason for every one that cannot. The window is split
+ * into chunks that run on a ForkJoin pool of its own, in two passes:
+ * <ol>
+ *     <li>field checks, recording the first position of every email in a concurrent map,
+ *     so the first occurrence in the file wins however the chunks are scheduled;</li>
+ *     <li>later occurrences are rejected, and the remaining emails of the chunk are checked
+ *     against the table with one IN query (one per shard when sharding is on).</li>
+ * </ol>
+ * Field checks scale with the cores; the queries are capped by
+ * {@code employee.import.max-concurrent-queries} so a large window cannot drain the
+ * connection pool.
+ *
+ * <p>The result is conflict-free as of the queries. The insert still has the unique index
+ * as its last line against rows written meanwhile.
+ */
+@Component
+public class EmployeeImportValidator implements AutoCloseable {
+
+    // also the IN-list length of the existence query
+    static final int CHUNK_SIZE = 1000;
+
+    // the default length of the varchar columns
+    static final int MAX_FIELD_LENGTH = 255;
+
+    private static final String MISSING_FIELDS = "firstName, lastName and email are required";
+
+    private interface ChunkCheck {
+        void check(int from, int to);
+    }
+
+    private EmployeeRepository employeeRepository;
+
+    private int shardCount;
+
+    private ForkJoinPool pool;
+
+    private Semaphore queries;
+
+    public EmployeeImportValidator(EmployeeRepository employeeRepository,
+                                   ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                   @Value("${employee.import.parallelism:0}") int parallelism,
+                                   @Value("${employee.import.max-concurrent-queries:4}") int maxConcurrentQueries) {
+        this.employeeRepository = employeeRepository;
+        ShardRoutingDataSource shards = shardRoutingDataSource == null ? null : shardRoutingDataSource.getIfAvailable();
+        this.shardCount = shards == null ? 0 : shards.getShardCount();
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.queries = new Semaphore(maxConcurrentQueries);
+    }
+
+    public ValidatedBatch validate(List<Employee> employees) {
+        int size = employees.size();
+        String[] errors = new String[size];
+        ConcurrentHashMap<String, Integer> firstPositions = new ConcurrentHashMap<>(size * 4 / 3 + 1);
+
+        pool.invoke(new ChunkTask(0, size, (from, to) -> {
+            for(int i = from; i < to; i++){
+                Employee employee = employees.get(i);
+                errors[i] = fieldError(employee);
+                if(errors[i] == null){
+                    firstPositions.merge(employee.getEmail(), i, Math::min);
+                }
+            }
+        }));
+        pool.invoke(new ChunkTask(0, size, (from, to) -> checkEmails(employees, errors, firstPositions, from, to)));
+
+        List<Employee> accepted = new ArrayList<>(size);
+        int[] positions = new int[size];
+        List<BatchItemResult> rejected = new ArrayList<>();
+        for(int i = 0; i < size; i++){
+            if(errors[i] == null){
+                positions[accepted.size()] = i;
+                accepted.add(employees.get(i));
+            } else {
+                rejected.add(BatchItemResult.failure(i, null, BatchItemResult.Status.FAILED, errors[i]));
+            }
+        }
+        return new ValidatedBatch(accepted, Arrays.copyOf(positions, accepted.size()), rejected);
+    }
+
+    private static String fieldError(Employee employee) {
+        if(employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null){
+            return MISSING_FIELDS;
+        }
+        if(employee.getFirstName().length() > MAX_FIELD_LENGTH || employee.getLastName().length() > MAX_FIELD_LENGTH
+                || employee.getEmail().length() > MAX_FIELD_LENGTH){
+            return "firstName, lastName and email must be at most " + MAX_FIELD_LENGTH + " characters";
+        }
+        int at = employee.getEmail().indexOf('@');
+        if(at <= 0 || at == employee.getEmail().length() - 1 || employee.getEmail().indexOf('@', at + 1) >= 0){
+            return "Invalid email " + employee.getEmail();
+        }
+        return null;
+    }
+
+    private void checkEmails(List<Employee> employees, String[] errors, ConcurrentHashMap<String, Integer> firstPositions,
+                             int from, int to) {
+        Set<String> emails = new LinkedHashSet<>();
+        for(int i = from; i < to; i++){
+            if(errors[i] != null){
+                continue;
+            }
+            String email = employees.get(i).getEmail();
+            if(firstPositions.get(email) != i){
+                errors[i] = new DuplicateEmailException(email).getMessage();
+            } else {
+                emails.add(email);
+            }
+        }
+        if(emails.isEmpty()){
+            return;
+        }
+        Set<String> taken = findTaken(emails);
+        for(int i = from; i < to; i++){
+            if(errors[i] == null && taken.contains(employees.get(i).getEmail())){
+                errors[i] = new DuplicateEmailException(employees.get(i).getEmail()).getMessage();
+            }
+        }
+    }
+
+    private Set<String> findTaken(Set<String> emails) {
+        queries.acquireUninterruptibly();
+        try {
+            if(shardCount == 0){
+                return findExisting(emails);
+            }
+            // the home shard of an email can change when shards are added, so every shard is asked
+            Set<String> taken = new HashSet<>();
+            for(int shard = 0; shard < shardCount; shard++){
+                taken.addAll(ShardContext.call(shard, () -> findExisting(emails)));
+            }
+            return taken;
+        } finally {
+            queries.release();
+        }
+    }
+
+    private Set<String> findExisting(Set<String> emails) {
+        Set<String> existing = new HashSet<>();
+        employeeRepository.findByEmailIn(emails).forEach(employee -> existing.add(employee.getEmail()));
+        return existing;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+
+        private final int from;
+
+        private final int to;
+
+        private final ChunkCheck check;
+
+        ChunkTask(int from, int to, ChunkCheck check) {
+            this.from = from;
+            this.to = to;
+            this.check = check;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= CHUNK_SIZE){
+                check.check(from, to);
+                return;
+            }
+            // split on a chunk boundary, so every leaf but the last is a full chunk
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            int middle = from + chunks / 2 * CHUNK_SIZE;
+            invokeAll(new ChunkTask(from, middle, check), new ChunkTask(middle, to, check));
+        }
+    }
+}
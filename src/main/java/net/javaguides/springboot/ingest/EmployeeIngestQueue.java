@@ -0,0 +1,200 @@
+package net.javaguides.springboot.ingest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.cache.BoundedCache;
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.IngestStatus;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind queue for employee creation. Request threads only enqueue, which never
+ * blocks: a full queue is reported to the caller instead. A single flusher thread takes
+ * what has accumulated and writes it through {@link EmployeeService#saveEmployees}, as soon
+ * as a batch is full or the oldest entry has waited one flush interval.
+ *
+ * <p>Statuses are kept in a bounded, expiring map; a tracking id that has aged out is
+ * reported as unknown.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+public class EmployeeIngestQueue implements SmartLifecycle, MeterBinder {
+
+    private record Pending(String trackingId, Employee employee) {
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private EmployeeService employeeService;
+
+    private BlockingQueue<Pending> queue;
+
+    private int batchSize;
+
+    private long flushIntervalNanos;
+
+    private BoundedCache<String, IngestStatus> statuses;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public EmployeeIngestQueue(EmployeeService employeeService,
+                               @Value("${employee.ingest.queue-capacity:50000}") int queueCapacity,
+                               @Value("${employee.ingest.batch-size:1000}") int batchSize,
+                               @Value("${employee.ingest.flush-interval:50ms}") Duration flushInterval,
+                               @Value("${employee.ingest.status-max-size:200000}") int statusMaxSize,
+                               @Value("${employee.ingest.status-ttl:10m}") Duration statusTtl) {
+        this.employeeService = employeeService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.statuses = new BoundedCache<>(statusMaxSize, statusTtl, (trackingId, status) -> { });
+    }
+
+    /**
+     * @return the queued status, or empty if the queue is full and the caller should back off
+     */
+    public Optional<IngestStatus> submit(Employee employee) {
+        String trackingId = epoch + "-" + sequence.incrementAndGet();
+        IngestStatus status = IngestStatus.queued(trackingId);
+        // recorded first, so the tracking id resolves even if the flusher gets to it before we return
+        statuses.put(trackingId, status);
+        if(!queue.offer(new Pending(trackingId, employee))){
+            statuses.invalidate(trackingId);
+            rejected.increment();
+            return Optional.empty();
+        }
+        return Optional.of(status);
+    }
+
+    public Optional<IngestStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.get(trackingId));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "employee-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // no interrupt: an interrupted JDBC call can close the connection mid-batch, and the
+    // loop notices the flag within one flush interval anyway
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped only after the web server, so nothing is enqueued once the flusher has drained the queue
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while(running){
+            try {
+                Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if(first == null){
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while(batch.size() < batchSize){
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if(batch.size() >= batchSize || remaining <= 0){
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next == null){
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+        }
+        flushQueued();
+    }
+
+    /**
+     * Writes everything currently queued without waiting for more.
+     */
+    void flushQueued() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while(queue.drainTo(batch, batchSize) > 0){
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        if(batch.isEmpty()){
+            return;
+        }
+        try {
+            BatchResult result = employeeService.saveEmployees(batch.stream().map(Pending::employee).toList());
+            for(BatchItemResult item : result.getItems()){
+                String trackingId = batch.get(item.getIndex()).trackingId();
+                statuses.put(trackingId, IngestStatus.of(trackingId, item));
+            }
+        } catch (RuntimeException e) {
+            // e.g. the database is unreachable: fail this batch but keep the flusher alive
+            String error = "Batch could not be written: " + e.getMessage();
+            for(Pending pending : batch){
+                statuses.put(pending.trackingId(),
+                        new IngestStatus(pending.trackingId(), IngestStatus.State.FAILED, null, error));
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.ingest.queue.size", this, EmployeeIngestQueue::getQueueSize).register(registry);
+        FunctionCounter.builder("employee.ingest.rejected", rejected, LongAdder::sum).register(registry);
+    }
+}
@@ -0,0 +1,14 @@
+package net.javaguides.springboot.ingest;
+
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+/**
+ * Output of {@link EmployeeImportValidator}. {@code positions[i]} is the position of
+ * {@code employees.get(i)} in the validated list; {@code rejected} holds a failure for every
+ * other row, indexed the same way and in position order.
+ */
+public record ValidatedBatch(List<Employee> employees, int[] positions, List<BatchItemResult> rejected) {
+}
@@ -0,0 +1,31 @@
+package net.javaguides.springboot.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #start()} and {@link #stop()}. Threads that never called start are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<long[]> statements = new ThreadLocal<>();
+
+    public void start() {
+        statements.set(new long[1]);
+    }
+
+    public long stop() {
+        long[] count = statements.get();
+        statements.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long[] count = statements.get();
+        if(count != null){
+            count[0]++;
+        }
+        return sql;
+    }
+}
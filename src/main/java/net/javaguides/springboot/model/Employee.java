@@ -1,8 +1,17 @@
 package net.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import net.javaguides.springboot.shard.ShardedSequenceGenerator;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.Instant;
+import java.util.Locale;
 
 @Getter
 @Setter
@@ -11,11 +20,28 @@ import javax.persistence.*;
 @Builder
 
 @Entity
-@Table(name ="employees")
+@Table(name ="employees",
+        indexes = {
+                @Index(name = Employee.EMAIL_INDEX, columnList = "email", unique = true),
+                @Index(name = "ix_employees_first_name_key", columnList = "first_name_key, id"),
+                @Index(name = "ix_employees_last_name_key", columnList = "last_name_key, id"),
+                @Index(name = "ix_employees_email_key", columnList = "email_key, id"),
+                @Index(name = "ix_employees_deleted_at", columnList = "deleted, deleted_at")
+        })
+// soft-deleted rows stay in the table until the purge job removes them; every JPQL read skips them
+@SQLRestriction("deleted = false")
 public class Employee {
 
+    public static final String EMAIL_INDEX = "ux_employees_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // a pooled sequence lets Hibernate batch inserts, which IDENTITY columns prevent; when
+    // sharding is on, the generator also encodes the shard into the id
+    @GeneratedValue(generator = "employees_seq")
+    @GenericGenerator(name = "employees_seq", type = ShardedSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "employees_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private long id;
 
     @Column(name = "first_name",nullable = false)
@@ -27,4 +53,41 @@ public class Employee {
     @Column(nullable = false)
     private String email;
 
+    @Version
+    private long version;
+
+    // lower-cased copies backing the case-insensitive prefix search; an index on the
+    // plain column cannot serve lower(column) like 'x%' in every database we run on
+    @JsonIgnore
+    @Column(name = "first_name_key",nullable = false)
+    private String firstNameKey;
+
+    @JsonIgnore
+    @Column(name = "last_name_key",nullable = false)
+    private String lastNameKey;
+
+    @JsonIgnore
+    @Column(name = "email_key",nullable = false)
+    private String emailKey;
+
+    // only ever set by the soft-delete UPDATE, never through the entity
+    @JsonIgnore
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKeys() {
+        firstNameKey = searchKey(firstName);
+        lastNameKey = searchKey(lastName);
+        emailKey = searchKey(email);
+    }
+
+    public static String searchKey(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
 }
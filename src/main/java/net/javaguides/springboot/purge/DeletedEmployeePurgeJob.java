@@ -0,0 +1,105 @@
+package net.javaguides.springboot.purge;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.shard.ShardContext;
+import net.javaguides.springboot.shard.ShardRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hard-deletes soft-deleted employees once they are older than the retention period. Runs
+ * on the scheduler thread at the times given by {@code employee.delete.purge-cron} (by
+ * default every ten minutes between 01:00 and 06:00). Each batch is its own short
+ * transaction, with a pause between batches, so a large backlog never holds locks or a
+ * connection for long.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "employee.delete.mode", havingValue = "soft")
+public class DeletedEmployeePurgeJob implements MeterBinder {
+
+    private final LongAdder purged = new LongAdder();
+
+    private EmployeeRepository employeeRepository;
+
+    private Duration retention;
+
+    private int batchSize;
+
+    private int maxBatchesPerRun;
+
+    private Duration pause;
+
+    private int shardCount;
+
+    public DeletedEmployeePurgeJob(EmployeeRepository employeeRepository,
+                                   ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                   @Value("${employee.delete.retention:7d}") Duration retention,
+                                   @Value("${employee.delete.purge-batch-size:1000}") int batchSize,
+                                   @Value("${employee.delete.purge-max-batches:100}") int maxBatchesPerRun,
+                                   @Value("${employee.delete.purge-pause:100ms}") Duration pause) {
+        this.employeeRepository = employeeRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pause = pause;
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        this.shardCount = shards == null ? 0 : shards.getShardCount();
+    }
+
+    @Scheduled(cron = "${employee.delete.purge-cron:0 */10 1-5 * * *}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        if(shardCount == 0){
+            purge(cutoff);
+            return;
+        }
+        // shard by shard, each with the full batch cap of its own
+        for(int shard = 0; shard < shardCount; shard++){
+            if(!ShardContext.call(shard, () -> purge(cutoff))){
+                break;
+            }
+        }
+    }
+
+    // a run that hits the batch cap leaves the rest to the next run in the window
+    private boolean purge(Instant cutoff) {
+        for(int batch = 0; batch < maxBatchesPerRun; batch++){
+            int deleted = employeeRepository.purgeDeleted(cutoff, batchSize);
+            purged.add(deleted);
+            if(deleted < batchSize){
+                return true;
+            }
+            if(!pause()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employee.delete.purged", purged, LongAdder::sum).register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package net.javaguides.springboot.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-client token bucket in front of the API. Clients are told apart by their
+ * authenticated principal, or by remote address when there is none. A request over
+ * the limit is answered 429 with a {@code Retry-After} before it reaches a controller.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long retryAfter = rateLimiter.tryAcquire(RateLimiter.clientKey(request.getUserPrincipal(), request.getRemoteAddr()));
+        if(retryAfter > 0){
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType("text/plain");
+            response.getWriter().write("Rate limit exceeded, retry later");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,45 @@
+package net.javaguides.springboot.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of {@link RateLimitFilter}, for the {@code reactive} profile.
+ */
+public class RateLimitWebFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitWebFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if(!request.getPath().value().startsWith("/api/")){
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String address = remoteAddress != null ? remoteAddress.getHostString() : "unknown";
+        return exchange.getPrincipal()
+                .map(principal -> RateLimiter.clientKey(principal, address))
+                .defaultIfEmpty(RateLimiter.clientKey(null, address))
+                .flatMap(client -> {
+                    long retryAfter = rateLimiter.tryAcquire(client);
+                    if(retryAfter > 0){
+                        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+                        return exchange.getResponse().setComplete();
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+}
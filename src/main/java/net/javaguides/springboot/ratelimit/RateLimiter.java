@@ -0,0 +1,108 @@
+package net.javaguides.springboot.ratelimit;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per client key. Shared by the servlet and the WebFlux filter, so
+ * both stacks enforce the same limits.
+ *
+ * <p>Buckets live in a fixed number of LRU segments, each an access-ordered map behind its
+ * own lock, so at most {@code maxClients} buckets are kept and making room for a new client
+ * drops the least recently used bucket of its segment in constant time. A client evicted
+ * that way has been idle longer than every other client of its segment, so its bucket has
+ * usually refilled anyway.
+ */
+public class RateLimiter {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final double requestsPerSecond;
+
+    private final int burst;
+
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(double requestsPerSecond, int burst, int maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    RateLimiter(double requestsPerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+        int segmentSize = Math.max(1, (maxClients + SEGMENTS - 1) / SEGMENTS);
+        for(int i = 0; i < SEGMENTS; i++){
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise the number of seconds to send as
+     *         {@code Retry-After}
+     */
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        long wait = bucketFor(client, now).tryAcquire(now);
+        return wait > 0 ? Math.max(1, (wait + 999_999_999L) / 1_000_000_000L) : 0;
+    }
+
+    int size() {
+        int size = 0;
+        for(Segment segment : segments){
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private TokenBucket bucketFor(String client, long now) {
+        int hash = client.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+        segment.lock.lock();
+        try {
+            return segment.buckets.computeIfAbsent(client, key -> new TokenBucket(requestsPerSecond, burst, now));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Keys on the authenticated principal, or on the remote address when there is none.
+     * Nothing the client chooses freely, such as a header, is used: a client could send a
+     * new value with every request and get a fresh bucket each time.
+     */
+    static String clientKey(Principal principal, String remoteAddress) {
+        return principal != null ? "user:" + principal.getName() : "ip:" + remoteAddress;
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // access-ordered, so the eldest entry is the least recently used one
+        private final LinkedHashMap<String, TokenBucket> buckets;
+
+        private Segment(int maxSize) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return buckets.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.javaguides.springboot.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as a single "theoretical arrival time" (the GCRA form of a
+ * token bucket): a request is admitted if the bucket, refilled at {@code ratePerSecond},
+ * still holds a token, and admission is one CAS on one long.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    // the time at which the bucket would be full again if nothing else arrived
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.nanosPerToken = (long) (1_000_000_000L / ratePerSecond);
+        this.burstNanos = nanosPerToken * burst;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise how many nanoseconds until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while(true){
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - burstNanos;
+            if(wait > 0){
+                return wait;
+            }
+            if(theoreticalArrival.compareAndSet(arrival, next)){
+                return 0;
+            }
+        }
+    }
+}
@@ -1,11 +1,107 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.dto.EmployeeView;
 import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface EmployeeRepository extends JpaRepository<Employee,Long> {
 
     Optional<Employee> findByEmail(String email);
+
+    List<Employee> findByEmailIn(Collection<String> emails);
+
+    // single UPDATE: null arguments keep the current value, a null version skips the version check
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = coalesce(:firstName, e.firstName), " +
+            "e.lastName = coalesce(:lastName, e.lastName), " +
+            "e.email = coalesce(:email, e.email), " +
+            "e.firstNameKey = coalesce(lower(:firstName), e.firstNameKey), " +
+            "e.lastNameKey = coalesce(lower(:lastName), e.lastNameKey), " +
+            "e.emailKey = coalesce(lower(:email), e.emailKey), " +
+            "e.version = e.version + 1 " +
+            "where e.id = :id and e.deleted = false and (:version is null or e.version = :version)")
+    int updateEmployee(@Param("id") long id,
+                       @Param("firstName") String firstName,
+                       @Param("lastName") String lastName,
+                       @Param("email") String email,
+                       @Param("version") Long version);
+
+    // one DELETE whose row count tells deleted from missing, unlike deleteById's SELECT then DELETE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id and e.deleted = false")
+    int deleteEmployeeById(@Param("id") long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id and e.deleted = false and e.version = :version")
+    int deleteByIdAndVersion(@Param("id") long id, @Param("version") long version);
+
+    // soft delete: the version still moves on, so a stale If-Match fails against a tombstone as well
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.deleted = true, e.deletedAt = :deletedAt, e.version = e.version + 1 " +
+            "where e.id = :id and e.deleted = false and (:version is null or e.version = :version)")
+    int softDeleteEmployee(@Param("id") long id, @Param("version") Long version, @Param("deletedAt") Instant deletedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.deleted = true, e.deletedAt = :deletedAt, e.version = e.version + 1 " +
+            "where e.id in :ids and e.deleted = false")
+    int softDeleteEmployees(@Param("ids") Collection<Long> ids, @Param("deletedAt") Instant deletedAt);
+
+    // native, because the entity's restriction hides exactly the rows these two remove
+    @Transactional
+    @Modifying
+    @Query(value = "delete from employees where id in " +
+            "(select id from employees where deleted = true and deleted_at < :cutoff order by id limit :limit)", nativeQuery = true)
+    int purgeDeleted(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    // the unique email index also covers tombstones, so a tombstone holding an email being reused goes early
+    @Transactional
+    @Modifying
+    @Query(value = "delete from employees where deleted = true and email in (:emails)", nativeQuery = true)
+    int purgeDeletedByEmailIn(@Param("emails") Collection<String> emails);
+
+    // prefix searches on the lower-cased key columns; each is a range scan of its (key, id) index
+    Slice<EmployeeView> findByFirstNameKeyStartingWithOrderByFirstNameKeyAscIdAsc(String prefix, Pageable pageable);
+
+    Slice<EmployeeView> findByLastNameKeyStartingWithOrderByLastNameKeyAscIdAsc(String prefix, Pageable pageable);
+
+    Slice<EmployeeView> findByEmailKeyStartingWithOrderByEmailKeyAscIdAsc(String prefix, Pageable pageable);
+
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    Optional<EmployeeView> findViewById(long id);
+
+    Optional<EmployeeView> findViewByEmail(String email);
+
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    @Query("select new net.javaguides.springboot.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e order by e.id")
+    List<EmployeeView> findAllViews();
+
+    // keyset pagination: seeks on the primary key index instead of OFFSET scanning
+    List<EmployeeView> findViewsByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // must be consumed inside a transaction and closed by the caller
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new net.javaguides.springboot.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e order by e.id")
+    Stream<EmployeeView> streamAll();
 }
@@ -0,0 +1,193 @@
+package net.javaguides.springboot.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * R2DBC access to the {@code employees} table written by {@link Employee}'s JPA mapping.
+ * Every method is a single statement, run in autocommit, and reads straight into
+ * {@link EmployeeView}. The entity's soft-delete restriction does not apply here, so every
+ * statement filters out deleted rows itself.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveEmployeeRepository {
+
+    private static final String VIEW_COLUMNS = "select id, first_name, last_name, email, version from employees where deleted = false";
+
+    private static final String UPDATE = "update employees set first_name = coalesce(:firstName, first_name), " +
+            "last_name = coalesce(:lastName, last_name), " +
+            "email = coalesce(:email, email), " +
+            "first_name_key = coalesce(:firstNameKey, first_name_key), " +
+            "last_name_key = coalesce(:lastNameKey, last_name_key), " +
+            "email_key = coalesce(:emailKey, email_key), " +
+            "version = version + 1 " +
+            "where id = :id and deleted = false";
+
+    private DatabaseClient databaseClient;
+
+    public ReactiveEmployeeRepository(ConnectionFactory connectionFactory) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * Inserts with the next value of {@code employees_seq} as id. JPA writers are not
+     * exposed in the reactive profile, so these ids never meet a block Hibernate's pooled
+     * optimizer has already handed out.
+     */
+    public Mono<EmployeeView> insert(Employee employee) {
+        return databaseClient.sql("select next value for employees_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> databaseClient.sql("insert into employees " +
+                                "(id, first_name, last_name, email, version, first_name_key, last_name_key, email_key, deleted) " +
+                                "values (:id, :firstName, :lastName, :email, 0, :firstNameKey, :lastNameKey, :emailKey, false)")
+                        .bind("id", id)
+                        .bind("firstName", employee.getFirstName())
+                        .bind("lastName", employee.getLastName())
+                        .bind("email", employee.getEmail())
+                        .bind("firstNameKey", Employee.searchKey(employee.getFirstName()))
+                        .bind("lastNameKey", Employee.searchKey(employee.getLastName()))
+                        .bind("emailKey", Employee.searchKey(employee.getEmail()))
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(new EmployeeView(id, employee.getFirstName(), employee.getLastName(), employee.getEmail(), 0)));
+    }
+
+    // rows are emitted as the driver produces them, under the subscriber's demand
+    public Flux<EmployeeView> findAll() {
+        return databaseClient.sql(VIEW_COLUMNS + " order by id")
+                .map(ReactiveEmployeeRepository::toView)
+                .all();
+    }
+
+    public Flux<EmployeeView> findAfter(long after, int limit) {
+        return databaseClient.sql(VIEW_COLUMNS + " and id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveEmployeeRepository::toView)
+                .all();
+    }
+
+    public Mono<EmployeeView> findById(long id) {
+        return databaseClient.sql(VIEW_COLUMNS + " and id = :id")
+                .bind("id", id)
+                .map(ReactiveEmployeeRepository::toView)
+                .one();
+    }
+
+    public Mono<EmployeeView> findByEmail(String email) {
+        return databaseClient.sql(VIEW_COLUMNS + " and email = :email")
+                .bind("email", email)
+                .map(ReactiveEmployeeRepository::toView)
+                .one();
+    }
+
+    public Mono<Long> findVersionById(long id) {
+        return databaseClient.sql("select version from employees where id = :id and deleted = false")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("select 1 from employees where id = :id and deleted = false")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .one()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    // same range scans of the (key, id) indexes as the JPA prefix search
+    public Flux<EmployeeView> search(EmployeeSearchField field, String prefix, long offset, int limit) {
+        String column = switch (field) {
+            case FIRST_NAME -> "first_name_key";
+            case LAST_NAME -> "last_name_key";
+            case EMAIL -> "email_key";
+        };
+        return databaseClient.sql(VIEW_COLUMNS + " and " + column + " like :pattern escape '\\' " +
+                        "order by " + column + ", id limit :limit offset :offset")
+                .bind("pattern", escapeLike(Employee.searchKey(prefix)) + "%")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveEmployeeRepository::toView)
+                .all();
+    }
+
+    /**
+     * Same single UPDATE as {@link EmployeeRepository#updateEmployee}: null fields keep
+     * their value, and a non-null version makes the update conditional.
+     */
+    public Mono<Long> update(long id, EmployeeUpdate patch) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(patch.getVersion() != null ? UPDATE + " and version = :version" : UPDATE)
+                .bind("id", id);
+        spec = bindNullable(spec, "firstName", patch.getFirstName());
+        spec = bindNullable(spec, "lastName", patch.getLastName());
+        spec = bindNullable(spec, "email", patch.getEmail());
+        spec = bindNullable(spec, "firstNameKey", Employee.searchKey(patch.getFirstName()));
+        spec = bindNullable(spec, "lastNameKey", Employee.searchKey(patch.getLastName()));
+        spec = bindNullable(spec, "emailKey", Employee.searchKey(patch.getEmail()));
+        if(patch.getVersion() != null){
+            spec = spec.bind("version", patch.getVersion());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient.sql("delete from employees where id = :id and deleted = false")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByIdAndVersion(long id, long version) {
+        return databaseClient.sql("delete from employees where id = :id and deleted = false and version = :version")
+                .bind("id", id)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Soft delete, as {@link EmployeeRepository#softDeleteEmployee}: a null version deletes
+     * unconditionally.
+     */
+    public Mono<Long> softDelete(long id, Long version, Instant deletedAt) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("update employees set deleted = true, deleted_at = :deletedAt, " +
+                        "version = version + 1 where id = :id and deleted = false" + (version != null ? " and version = :version" : ""))
+                .bind("id", id)
+                .bind("deletedAt", deletedAt);
+        return (version != null ? spec.bind("version", version) : spec).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> purgeDeletedByEmail(String email) {
+        return databaseClient.sql("delete from employees where deleted = true and email = :email")
+                .bind("email", email)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static EmployeeView toView(Readable row) {
+        return new EmployeeView(row.get("id", Long.class), row.get("first_name", String.class),
+                row.get("last_name", String.class), row.get("email", String.class), row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface EmployeeBulkService {
+
+    void exportCsv(OutputStream outputStream) throws IOException;
+
+    void exportNdjson(OutputStream outputStream) throws IOException;
+
+    /**
+     * @throws IllegalArgumentException if the header does not name the firstName, lastName
+     *         and email columns
+     */
+    ImportReport importCsv(InputStream inputStream) throws IOException;
+
+    ImportReport importNdjson(InputStream inputStream) throws IOException;
+}
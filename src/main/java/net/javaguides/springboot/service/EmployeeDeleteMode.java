@@ -0,0 +1,18 @@
+package net.javaguides.springboot.service;
+
+/**
+ * How {@code DELETE} removes an employee, set by {@code employee.delete.mode}.
+ */
+public enum EmployeeDeleteMode {
+
+    /**
+     * The row is deleted straight away.
+     */
+    HARD,
+
+    /**
+     * The row is flagged and timestamped, hidden from every read, and physically removed
+     * later by the purge job once the retention period has passed.
+     */
+    SOFT
+}
@@ -1,20 +1,76 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee) throws ResourceNotFoundException;
 
-    List<Employee> getAllEmployees();
+    BatchResult saveEmployees(List<Employee> employees);
 
-    Optional<Employee> getEmployeeById(long id);
+    BatchResult updateEmployees(List<Employee> employees);
 
-    Employee updateEmployee(Employee updatedEmployee);
+    BatchResult deleteEmployees(List<Long> ids);
 
-    void deleteEmployee(long id);
+    List<EmployeeView> getAllEmployees();
+
+    EmployeePage getEmployees(long after, int limit);
+
+    void streamEmployees(Consumer<EmployeeView> consumer);
+
+    Optional<EmployeeView> getEmployeeById(long id);
+
+    Optional<EmployeeView> getEmployeeByEmail(String email);
+
+    /**
+     * Reads only the version column, so conditional requests can be answered without
+     * loading the employee.
+     */
+    Optional<Long> getEmployeeVersion(long id);
+
+    EmployeeSearchPage searchEmployees(EmployeeSearchField field, String prefix, int page, int size);
+
+    /**
+     * Applies the non-null fields of {@code patch} with one UPDATE statement.
+     *
+     * @return false if no employee exists with the given id
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if
+     *         {@code patch} carries a version and the row has moved on since
+     */
+    boolean updateEmployee(long id, EmployeeUpdate patch);
+
+    /**
+     * Like {@link #updateEmployee}, then reads the row back in the same transaction, so the
+     * result is exactly what was written, version included.
+     *
+     * @return empty if no employee exists with the given id
+     */
+    Optional<EmployeeView> updateEmployeeAndGet(long id, EmployeeUpdate patch);
+
+    /**
+     * Deletes, or in soft delete mode flags, the employee with one statement.
+     *
+     * @return false if no employee exists with the given id
+     */
+    boolean deleteEmployee(long id);
+
+    /**
+     * Deletes the employee only if it is still at {@code version}.
+     *
+     * @return false if no employee exists with the given id
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the row
+     *         has moved on since {@code version}
+     */
+    boolean deleteEmployee(long id, long version);
 }
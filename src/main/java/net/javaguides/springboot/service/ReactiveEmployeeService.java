@@ -0,0 +1,62 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeService}, used by the {@code reactive} profile.
+ * Missing employees are empty publishers rather than {@code Optional}s.
+ */
+public interface ReactiveEmployeeService {
+
+    /**
+     * @return the created employee, or an error with
+     *         {@link net.javaguides.springboot.exception.DuplicateEmailException} if the
+     *         email is taken
+     */
+    Mono<EmployeeView> saveEmployee(Employee employee);
+
+    Flux<EmployeeView> getAllEmployees();
+
+    Mono<EmployeePage> getEmployees(long after, int limit);
+
+    Mono<EmployeeView> getEmployeeById(long id);
+
+    Mono<EmployeeView> getEmployeeByEmail(String email);
+
+    Mono<Long> getEmployeeVersion(long id);
+
+    Mono<EmployeeSearchPage> searchEmployees(EmployeeSearchField field, String prefix, int page, int size);
+
+    /**
+     * @return false if no employee exists with the given id, or an error with
+     *         {@link org.springframework.orm.ObjectOptimisticLockingFailureException} if
+     *         {@code patch} carries a version and the row has moved on since
+     */
+    Mono<Boolean> updateEmployee(long id, EmployeeUpdate patch);
+
+    /**
+     * Like {@link #updateEmployee}, then reads the row back.
+     *
+     * @return empty if no employee exists with the given id
+     */
+    Mono<EmployeeView> updateEmployeeAndGet(long id, EmployeeUpdate patch);
+
+    /**
+     * @return false if no employee exists with the given id
+     */
+    Mono<Boolean> deleteEmployee(long id);
+
+    /**
+     * @return false if no employee exists with the given id, or an error with
+     *         {@link org.springframework.orm.ObjectOptimisticLockingFailureException} if
+     *         the row has moved on since {@code version}
+     */
+    Mono<Boolean> deleteEmployee(long id, long version);
+}
@@ -0,0 +1,265 @@
+package net.javaguides.springboot.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.cache.BoundedCache;
+import net.javaguides.springboot.cache.CacheStats;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of {@link EmployeeServiceImpl} (or {@link ShardedEmployeeService}).
+ * Keeps an id -> employee view entry plus an email -> id index whose lifetime is tied to
+ * the id entry, and invalidates both on every mutation that goes through this service.
+ *
+ * <p>Every invalidation also bumps a generation counter for the id, and a read only caches
+ * what it loaded if the generation is still the one it saw before going to the delegate.
+ * Otherwise a read that started before an update could put the old row back after the
+ * update invalidated it, and serve it until the TTL ran out. Versions for conditional
+ * requests are never answered from the cache.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(name = "employee.cache.enabled", havingValue = "true")
+public class CachingEmployeeService implements EmployeeService, MeterBinder {
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private EmployeeService delegate;
+
+    private BoundedCache<Long, EmployeeView> employeesById;
+
+    private Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    // striped by id: a collision only costs a skipped put
+    private AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    // for reads by email, whose id is not known until the delegate answers
+    private AtomicLong invalidations = new AtomicLong();
+
+    // with sharding on, the cache sits in front of the sharded service instead
+    @Autowired
+    public CachingEmployeeService(EmployeeServiceImpl employeeService,
+                                  ObjectProvider<ShardedEmployeeService> shardedEmployeeService,
+                                  @Value("${employee.cache.max-size:10000}") int maxSize,
+                                  @Value("${employee.cache.ttl:10m}") Duration ttl) {
+        this(delegateOf(employeeService, shardedEmployeeService), maxSize, ttl);
+    }
+
+    public CachingEmployeeService(EmployeeService delegate, int maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.employeesById = new BoundedCache<>(maxSize, ttl,
+                (id, employee) -> idsByEmail.remove(employee.getEmail(), id));
+    }
+
+    private static EmployeeService delegateOf(EmployeeServiceImpl employeeService,
+                                              ObjectProvider<ShardedEmployeeService> shardedEmployeeService) {
+        ShardedEmployeeService sharded = shardedEmployeeService.getIfAvailable();
+        return sharded != null ? sharded : employeeService;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) throws ResourceNotFoundException {
+        if(cachedByEmail(employee.getEmail()) != null){
+            throw new DuplicateEmailException(employee.getEmail());
+        }
+        Employee savedEmployee = delegate.saveEmployee(employee);
+        cache(EmployeeView.of(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    public BatchResult saveEmployees(List<Employee> employees) {
+        return delegate.saveEmployees(employees);
+    }
+
+    @Override
+    public BatchResult updateEmployees(List<Employee> employees) {
+        try {
+            return delegate.updateEmployees(employees);
+        } finally {
+            employees.forEach(employee -> invalidate(employee.getId()));
+        }
+    }
+
+    @Override
+    public BatchResult deleteEmployees(List<Long> ids) {
+        try {
+            return delegate.deleteEmployees(ids);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public EmployeePage getEmployees(long after, int limit) {
+        return delegate.getEmployees(after, limit);
+    }
+
+    @Override
+    public void streamEmployees(Consumer<EmployeeView> consumer) {
+        delegate.streamEmployees(consumer);
+    }
+
+    @Override
+    public Optional<EmployeeView> getEmployeeById(long id) {
+        EmployeeView cached = employeesById.get(id);
+        if(cached != null){
+            return Optional.of(cached);
+        }
+        long generation = generations.get(stripe(id));
+        Optional<EmployeeView> employee = delegate.getEmployeeById(id);
+        employee.ifPresent(loaded -> cache(loaded, () -> generations.get(stripe(id)) == generation));
+        return employee;
+    }
+
+    @Override
+    public Optional<EmployeeView> getEmployeeByEmail(String email) {
+        EmployeeView cached = cachedByEmail(email);
+        if(cached != null){
+            return Optional.of(cached);
+        }
+        long invalidation = invalidations.get();
+        Optional<EmployeeView> employee = delegate.getEmployeeByEmail(email);
+        employee.ifPresent(loaded -> cache(loaded, () -> invalidations.get() == invalidation));
+        return employee;
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+        // decides 304, 409 and 412 answers, so it always comes from the database
+        return delegate.getEmployeeVersion(id);
+    }
+
+    @Override
+    public EmployeeSearchPage searchEmployees(EmployeeSearchField field, String prefix, int page, int size) {
+        return delegate.searchEmployees(field, prefix, page, size);
+    }
+
+    @Override
+    public boolean updateEmployee(long id, EmployeeUpdate patch) {
+        try {
+            return delegate.updateEmployee(id, patch);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public Optional<EmployeeView> updateEmployeeAndGet(long id, EmployeeUpdate patch) {
+        try {
+            return delegate.updateEmployeeAndGet(id, patch);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        try {
+            return delegate.deleteEmployee(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean deleteEmployee(long id, long version) {
+        try {
+            return delegate.deleteEmployee(id, version);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    public CacheStats getStats() {
+        return employeesById.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employee.cache.hits", this, service -> service.getStats().getHits()).register(registry);
+        FunctionCounter.builder("employee.cache.misses", this, service -> service.getStats().getMisses()).register(registry);
+        FunctionCounter.builder("employee.cache.evictions", this, service -> service.getStats().getEvictions()).register(registry);
+        Gauge.builder("employee.cache.size", this, service -> service.getStats().getSize()).register(registry);
+    }
+
+    private void cache(EmployeeView employee) {
+        cache(employee, () -> true);
+    }
+
+    /**
+     * Puts first and checks {@code unchanged} afterwards, while {@link #invalidate} bumps
+     * the generation before removing: whichever way the two interleave, a row loaded before
+     * an invalidation is either never seen by the check or removed by the invalidation.
+     */
+    private void cache(EmployeeView employee, BooleanSupplier unchanged) {
+        // views are immutable, so cached instances can be handed out directly
+        employeesById.put(employee.getId(), employee);
+        idsByEmail.put(employee.getEmail(), employee.getId());
+        if(!unchanged.getAsBoolean()){
+            employeesById.invalidate(employee.getId());
+            idsByEmail.remove(employee.getEmail(), employee.getId());
+        }
+    }
+
+    // the removal listener drops the email of the cached row, i.e. the old one on an update
+    private void invalidate(long id) {
+        generations.incrementAndGet(stripe(id));
+        invalidations.incrementAndGet();
+        employeesById.invalidate(id);
+    }
+
+    /**
+     * The index can briefly lag the id entries (an update that changed the email, or an
+     * entry evicted between the two puts), so a hit only counts if the row it points to is
+     * still cached under that email; a stale mapping is dropped on the way.
+     */
+    private EmployeeView cachedByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        if(id == null){
+            return null;
+        }
+        EmployeeView cached = employeesById.get(id);
+        if(cached != null && cached.getEmail().equals(email)){
+            return cached;
+        }
+        idsByEmail.remove(email, id);
+        return null;
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) & (GENERATION_STRIPES - 1);
+    }
+}
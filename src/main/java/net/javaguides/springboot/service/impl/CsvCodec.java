@@ -0,0 +1,81 @@
+package net.javaguides.springboot.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The RFC 4180 subset the bulk endpoints need: comma separated, fields quoted with double
+ * quotes when they contain a comma, quote or line break, quotes doubled inside.
+ */
+final class CsvCodec {
+
+    private CsvCodec() {
+    }
+
+    static String escape(String value) {
+        if(value == null){
+            return "";
+        }
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == ',' || c == '"' || c == '\n' || c == '\r'){
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads the next record, following line breaks inside quoted fields.
+     *
+     * @return the fields, or null at the end of the input
+     */
+    static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if(line == null){
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while(true){
+            if(i == line.length()){
+                if(!quoted){
+                    break;
+                }
+                String next = reader.readLine();
+                if(next == null){
+                    // unterminated quote: keep what was read rather than fail the whole upload
+                    break;
+                }
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if(quoted){
+                if(c != '"'){
+                    field.append(c);
+                } else if(i < line.length() && line.charAt(i) == '"'){
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if(c == '"'){
+                quoted = true;
+            } else if(c == ','){
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
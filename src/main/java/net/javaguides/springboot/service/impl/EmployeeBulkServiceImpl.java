@@ -0,0 +1,269 @@
+package net.javaguides.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.dto.ImportReport;
+import net.javaguides.springboot.dto.ImportRowError;
+import net.javaguides.springboot.ingest.EmployeeImportValidator;
+import net.javaguides.springboot.ingest.ValidatedBatch;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeBulkService;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class EmployeeBulkServiceImpl implements EmployeeBulkService {
+
+    // rows pulled per round trip; the result set is forward-only, so this is all the driver holds
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    // each chunk is one saveEmployees call, and so one committed transaction
+    static final int IMPORT_CHUNK_SIZE = 1000;
+
+    // rows validated together, so the validator has enough chunks to spread over the cores
+    static final int IMPORT_WINDOW_SIZE = 50 * IMPORT_CHUNK_SIZE;
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String EXPORT_SQL = "select id, first_name, last_name, email, version from employees where deleted = false order by id";
+
+    private static final String CSV_HEADER = "id,firstName,lastName,email,version\n";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeService employeeService;
+
+    private ObjectMapper objectMapper;
+
+    private boolean sharded;
+
+    private EmployeeImportValidator importValidator;
+
+    public EmployeeBulkServiceImpl(DataSource dataSource, EmployeeService employeeService, ObjectMapper objectMapper,
+                                   @Value("${employee.sharding.enabled:false}") boolean sharded,
+                                   EmployeeImportValidator importValidator) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.sharded = sharded;
+        this.importValidator = importValidator;
+    }
+
+    private interface RowWriter {
+        void write(long id, String firstName, String lastName, String email, long version) throws IOException;
+    }
+
+    // read-only transaction: some drivers (PostgreSQL) only stream with fetchSize when autocommit is off
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(CSV_HEADER);
+        export((id, firstName, lastName, email, version) -> {
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writer.write(CsvCodec.escape(firstName));
+            writer.write(',');
+            writer.write(CsvCodec.escape(lastName));
+            writer.write(',');
+            writer.write(CsvCodec.escape(email));
+            writer.write(',');
+            writer.write(Long.toString(version));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        export((id, firstName, lastName, email, version) ->
+                generator.writeObject(new EmployeeView(id, firstName, lastName, email, version)));
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    private void export(RowWriter rowWriter) throws IOException {
+        try {
+            if(sharded){
+                // the rows live in several databases; the sharded service merges them back into id order
+                employeeService.streamEmployees(employee -> writeRow(rowWriter, employee.getId(), employee.getFirstName(),
+                        employee.getLastName(), employee.getEmail(), employee.getVersion()));
+            } else {
+                jdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) resultSet -> writeRow(rowWriter, resultSet.getLong(1),
+                        resultSet.getString(2), resultSet.getString(3), resultSet.getString(4), resultSet.getLong(5)));
+            }
+        } catch (UncheckedIOException e) {
+            // usually the client went away; surfacing it ends the query instead of reading on
+            throw e.getCause();
+        }
+    }
+
+    private static void writeRow(RowWriter rowWriter, long id, String firstName, String lastName, String email, long version) {
+        try {
+            rowWriter.write(id, firstName, lastName, email, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ImportReport importCsv(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        ImportSession session = new ImportSession();
+
+        List<String> header = CsvCodec.readRecord(reader);
+        if(header == null){
+            return session.finish();
+        }
+        int firstName = header.indexOf("firstName");
+        int lastName = header.indexOf("lastName");
+        int email = header.indexOf("email");
+        if(firstName < 0 || lastName < 0 || email < 0){
+            throw new IllegalArgumentException("CSV header must name the firstName, lastName and email columns");
+        }
+
+        List<String> record;
+        while((record = CsvCodec.readRecord(reader)) != null){
+            if(record.size() == 1 && record.get(0).isEmpty()){
+                continue;
+            }
+            long row = session.nextRow();
+            if(record.size() != header.size()){
+                session.reject(row, "Expected " + header.size() + " columns but found " + record.size());
+                continue;
+            }
+            session.add(row, newEmployee(record.get(firstName), record.get(lastName), record.get(email)));
+        }
+        return session.finish();
+    }
+
+    @Override
+    public ImportReport importNdjson(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        ImportSession session = new ImportSession();
+
+        String line;
+        while((line = reader.readLine()) != null){
+            if(line.isBlank()){
+                continue;
+            }
+            long row = session.nextRow();
+            try {
+                Employee employee = objectMapper.readValue(line, Employee.class);
+                session.add(row, newEmployee(employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+            } catch (JsonProcessingException e) {
+                session.reject(row, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return session.finish();
+    }
+
+    // only the data columns are taken over: an imported id or version must never turn the insert into a merge
+    private static Employee newEmployee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .firstName(emptyToNull(firstName))
+                .lastName(emptyToNull(lastName))
+                .email(emptyToNull(email))
+                .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Collects parsed rows into windows and keeps the running totals. A full window is
+     * validated as a whole and its clean rows are saved chunk by chunk. Nothing but the
+     * current window and the capped error list is held, whatever the size of the upload.
+     */
+    private class ImportSession {
+
+        private final List<Employee> window = new ArrayList<>(IMPORT_WINDOW_SIZE);
+
+        private final long[] windowRows = new long[IMPORT_WINDOW_SIZE];
+
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        private long rows;
+
+        private long created;
+
+        private long failed;
+
+        long nextRow() {
+            return ++rows;
+        }
+
+        void add(long row, Employee employee) {
+            windowRows[window.size()] = row;
+            window.add(employee);
+            if(window.size() == IMPORT_WINDOW_SIZE){
+                flush();
+            }
+        }
+
+        void reject(long row, String error) {
+            failed++;
+            if(errors.size() < MAX_REPORTED_ERRORS){
+                errors.add(new ImportRowError(row, error));
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            return new ImportReport(rows, created, failed, errors);
+        }
+
+        private void flush() {
+            if(window.isEmpty()){
+                return;
+            }
+            ValidatedBatch batch = importValidator.validate(window);
+            for(BatchItemResult item : batch.rejected()){
+                reject(windowRows[item.getIndex()], item.getError());
+            }
+            List<Employee> employees = batch.employees();
+            for(int from = 0; from < employees.size(); from += IMPORT_CHUNK_SIZE){
+                int to = Math.min(from + IMPORT_CHUNK_SIZE, employees.size());
+                // saveEmployees checks again, which only catches rows written since the validation
+                BatchResult result = employeeService.saveEmployees(new ArrayList<>(employees.subList(from, to)));
+                for(BatchItemResult item : result.getItems()){
+                    if(item.isSucceeded()){
+                        created++;
+                    } else {
+                        reject(windowRows[batch.positions()[from + item.getIndex()]], item.getError());
+                    }
+                }
+            }
+            window.clear();
+        }
+    }
+}
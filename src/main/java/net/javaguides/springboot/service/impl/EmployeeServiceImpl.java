@@ -1,53 +1,475 @@
 package net.javaguides.springboot.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import net.javaguides.springboot.cache.SingleFlight;
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import net.javaguides.springboot.exception.DuplicateEmailException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeDeleteMode;
 import net.javaguides.springboot.service.EmployeeService;
-import org.springframework.beans.factory.annotation.Autowired;
+import net.javaguides.springboot.shard.ShardContext;
+import net.javaguides.springboot.snapshot.EmployeeSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "employee.service", histogram = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // bounds both the IN-list of the duplicate check and the persistence context per flush
+    static final int BATCH_CHUNK_SIZE = 1000;
+
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    private static final String MISSING_FIELDS = "firstName, lastName and email are required";
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private EntityManager entityManager;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate writeTransaction;
+
+    // identical concurrent reads share one query; keyed by what they read, e.g. "id:42"
+    private SingleFlight<String, Object> reads = new SingleFlight<>();
+
+    private boolean softDelete;
+
+    // off-heap copy answering getEmployeeById; null unless employee.snapshot.enabled
+    private EmployeeSnapshot snapshot;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                               @Value("${employee.delete.mode:hard}") EmployeeDeleteMode deleteMode,
+                               ObjectProvider<EmployeeSnapshot> snapshot) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.softDelete = deleteMode == EmployeeDeleteMode.SOFT;
+        this.snapshot = snapshot == null ? null : snapshot.getIfAvailable();
     }
 
     @Override
     public Employee saveEmployee(Employee employee) throws ResourceNotFoundException {
+        try {
+            // the unique index is the duplicate check: one INSERT, and no window between check and write
+            Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+            publish(EmployeeChangedEvent.Type.CREATED, savedEmployee);
+            return savedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            if(!DuplicateEmailException.isEmailConflict(e)){
+                throw e;
+            }
+            // the conflict may only be a tombstone; retried once, and only if one was purged
+            if(softDelete && employeeRepository.purgeDeletedByEmailIn(List.of(employee.getEmail())) > 0){
+                employee.setId(0);
+                return saveEmployee(employee);
+            }
+            throw new DuplicateEmailException(employee.getEmail(), e);
+        }
+    }
+
+    @Override
+    public BatchResult saveEmployees(List<Employee> employees) {
+        List<BatchItemResult> results = new ArrayList<>(employees.size());
+        for(int from = 0; from < employees.size(); from += BATCH_CHUNK_SIZE){
+            int to = Math.min(from + BATCH_CHUNK_SIZE, employees.size());
+            results.addAll(saveChunk(employees.subList(from, to), from));
+        }
+        return BatchResult.of(results);
+    }
+
+    private List<BatchItemResult> saveChunk(List<Employee> chunk, int offset) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+
+        Set<String> takenEmails = findByEmails(chunk).stream()
+                .map(Employee::getEmail)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<Employee> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+        for(int i = 0; i < chunk.size(); i++){
+            Employee employee = chunk.get(i);
+            if(!isComplete(employee)){
+                results[i] = BatchItemResult.failure(offset + i, null, BatchItemResult.Status.FAILED, MISSING_FIELDS);
+            } else if(!takenEmails.add(employee.getEmail())){
+                results[i] = BatchItemResult.failure(offset + i, null, BatchItemResult.Status.FAILED,
+                        new DuplicateEmailException(employee.getEmail()).getMessage());
+            } else {
+                accepted.add(employee);
+                acceptedPositions.add(i);
+            }
+        }
+
+        purgeTombstones(accepted);
+        insert(accepted, acceptedPositions, results, offset);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Inserts {@code rows} in one transaction, with the inserts sent as JDBC batches on flush.
+     * If the database rejects the batch, the halves are retried on their own until the
+     * offending rows are isolated, so only they are reported FAILED: k bad rows cost about
+     * k * log2(n) extra round trips instead of failing all n.
+     */
+    private void insert(List<Employee> rows, List<Integer> positions, BatchItemResult[] results, int offset) {
+        if(rows.isEmpty()){
+            return;
+        }
+        try {
+            List<Employee> saved = employeeRepository.saveAll(rows);
+            for(int j = 0; j < saved.size(); j++){
+                int i = positions.get(j);
+                results[i] = BatchItemResult.success(offset + i, saved.get(j).getId(), BatchItemResult.Status.CREATED);
+            }
+            saved.forEach(employee -> publish(EmployeeChangedEvent.Type.CREATED, employee));
+        } catch (DataIntegrityViolationException e) {
+            // the rollback left the generated ids on the entities; cleared so they are inserted again
+            rows.forEach(employee -> {
+                employee.setId(0);
+                employee.setVersion(0);
+            });
+            if(rows.size() == 1){
+                Employee employee = rows.get(0);
+                String error = DuplicateEmailException.isEmailConflict(e)
+                        ? new DuplicateEmailException(employee.getEmail()).getMessage()
+                        : "Rejected by the database: " + e.getMostSpecificCause().getMessage();
+                int i = positions.get(0);
+                results[i] = BatchItemResult.failure(offset + i, null, BatchItemResult.Status.FAILED, error);
+                return;
+            }
+            int middle = rows.size() / 2;
+            insert(rows.subList(0, middle), positions.subList(0, middle), results, offset);
+            insert(rows.subList(middle, rows.size()), positions.subList(middle, rows.size()), results, offset);
+        }
+    }
+
+    @Override
+    public BatchResult updateEmployees(List<Employee> employees) {
+        List<BatchItemResult> results = new ArrayList<>(employees.size());
+        for(int from = 0; from < employees.size(); from += BATCH_CHUNK_SIZE){
+            int to = Math.min(from + BATCH_CHUNK_SIZE, employees.size());
+            update(employees.subList(from, to), from, results);
+        }
+        return BatchResult.of(results);
+    }
+
+    /**
+     * Applies {@code rows} in a transaction of their own, with the updates sent as JDBC
+     * batches on flush. As in {@link #insert}, a rejected flush is retried by halves until
+     * the offending rows are isolated and reported FAILED. Every attempt reads its rows
+     * again, so a row that only lost a race with another writer goes through on retry.
+     */
+    private void update(List<Employee> rows, int offset, List<BatchItemResult> results) {
+        try {
+            results.addAll(writeTransaction.execute(status -> {
+                List<Employee> changed = new ArrayList<>();
+                // before any entity is dirty: the native purge flushes the persistence context
+                purgeTombstones(rows);
+                List<BatchItemResult> applied = updateChunk(rows, offset, changed);
+                // through the repository, so a rejected batch surfaces as a DataAccessException
+                employeeRepository.flush();
+                // flushing bumped the versions, so the published views match the new rows
+                changed.forEach(employee -> publish(EmployeeChangedEvent.Type.UPDATED, employee));
+                // keeps memory flat should a caller's transaction span several chunks
+                entityManager.clear();
+                return applied;
+            }));
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+            if(rows.size() == 1){
+                Employee employee = rows.get(0);
+                results.add(BatchItemResult.failure(offset, employee.getId(), BatchItemResult.Status.FAILED,
+                        rejection(employee, e)));
+                return;
+            }
+            int middle = rows.size() / 2;
+            update(rows.subList(0, middle), offset, results);
+            update(rows.subList(middle, rows.size()), offset + middle, results);
+        }
+    }
+
+    private static String rejection(Employee employee, DataAccessException e) {
+        if(e instanceof DataIntegrityViolationException violation && DuplicateEmailException.isEmailConflict(violation)){
+            return new DuplicateEmailException(employee.getEmail()).getMessage();
+        }
+        if(e instanceof ObjectOptimisticLockingFailureException){
+            return "Employee was modified concurrently, reload and retry";
+        }
+        return "Rejected by the database: " + e.getMostSpecificCause().getMessage();
+    }
+
+    private List<BatchItemResult> updateChunk(List<Employee> chunk, int offset, List<Employee> changed) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+
+        Map<Long, Employee> existing = employeeRepository.findAllById(chunk.stream().map(Employee::getId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        Map<String, Long> emailOwners = new HashMap<>();
+        findByEmails(chunk).forEach(employee -> emailOwners.put(employee.getEmail(), employee.getId()));
+
+        for(int i = 0; i < chunk.size(); i++){
+            Employee employee = chunk.get(i);
+            Employee savedEmployee = existing.get(employee.getId());
+            if(savedEmployee == null){
+                results.add(BatchItemResult.failure(offset + i, employee.getId(), BatchItemResult.Status.NOT_FOUND,
+                        "Employee not found with given id "+employee.getId()));
+                continue;
+            }
+            if(!isComplete(employee)){
+                results.add(BatchItemResult.failure(offset + i, employee.getId(), BatchItemResult.Status.FAILED, MISSING_FIELDS));
+                continue;
+            }
+            Long owner = emailOwners.get(employee.getEmail());
+            if(owner != null && owner != employee.getId()){
+                results.add(BatchItemResult.failure(offset + i, employee.getId(), BatchItemResult.Status.FAILED,
+                        new DuplicateEmailException(employee.getEmail()).getMessage()));
+                continue;
+            }
+            emailOwners.remove(savedEmployee.getEmail(), savedEmployee.getId());
+            emailOwners.put(employee.getEmail(), employee.getId());
+
+            savedEmployee.setFirstName(employee.getFirstName());
+            savedEmployee.setLastName(employee.getLastName());
+            savedEmployee.setEmail(employee.getEmail());
+            changed.add(savedEmployee);
+            results.add(BatchItemResult.success(offset + i, employee.getId(), BatchItemResult.Status.UPDATED));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public BatchResult deleteEmployees(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for(int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE){
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+            Set<Long> existing = new HashSet<>(employeeRepository.findExistingIds(chunk));
+            if(!existing.isEmpty()){
+                if(softDelete){
+                    employeeRepository.softDeleteEmployees(existing, Instant.now());
+                } else {
+                    employeeRepository.deleteAllByIdInBatch(existing);
+                }
+                existing.forEach(id -> eventPublisher.publishEvent(
+                        new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, id, null)));
+            }
 
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already exist with given Email "+employee.getEmail());
+            for(int i = 0; i < chunk.size(); i++){
+                Long id = chunk.get(i);
+                results.add(existing.contains(id)
+                        ? BatchItemResult.success(from + i, id, BatchItemResult.Status.DELETED)
+                        : BatchItemResult.failure(from + i, id, BatchItemResult.Status.NOT_FOUND, "Employee not found with given id "+id));
+            }
         }
+        return BatchResult.of(results);
+    }
+
+    private void publish(EmployeeChangedEvent.Type type, Employee employee) {
+        eventPublisher.publishEvent(new EmployeeChangedEvent(type, employee.getId(), EmployeeView.of(employee)));
+    }
+
+    // a no-op in hard delete mode, where there are no tombstones to collide with
+    private void purgeTombstones(List<Employee> employees) {
+        if(!softDelete){
+            return;
+        }
+        Set<String> emails = employees.stream()
+                .map(Employee::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if(!emails.isEmpty()){
+            employeeRepository.purgeDeletedByEmailIn(emails);
+        }
+    }
+
+    private static boolean isComplete(Employee employee) {
+        return employee.getFirstName() != null && employee.getLastName() != null && employee.getEmail() != null;
+    }
+
+    // one set-based lookup for the whole chunk instead of a findByEmail per item
+    private List<Employee> findByEmails(List<Employee> employees) {
+        Set<String> emails = employees.stream()
+                .map(Employee::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return emails.isEmpty() ? List.of() : employeeRepository.findByEmailIn(emails);
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        return coalesce("all", employeeRepository::findAllViews);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployees(long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        // fetch one extra row to learn whether another page exists without a count query
+        List<EmployeeView> employees = employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize + 1));
+
+        if(employees.size() <= pageSize){
+            return new EmployeePage(employees, null);
+        }
+        List<EmployeeView> content = new ArrayList<>(employees.subList(0, pageSize));
+        return new EmployeePage(content, content.get(pageSize - 1).getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamEmployees(Consumer<EmployeeView> consumer) {
+        // projections are never attached to the persistence context, so it stays empty however many rows pass
+        try (Stream<EmployeeView> employees = employeeRepository.streamAll()) {
+            employees.forEach(consumer);
+        }
+    }
 
-        return employeeRepository.save(employee);
+    @Override
+    public Optional<EmployeeView> getEmployeeById(long id) {
+        EmployeeView cached = snapshot == null ? null : snapshot.get(id);
+        if(cached != null){
+            return Optional.of(cached);
+        }
+        return coalesce("id:" + id, () -> employeeRepository.findViewById(id));
     }
 
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    public Optional<EmployeeView> getEmployeeByEmail(String email) {
+        return coalesce("email:" + email, () -> employeeRepository.findViewByEmail(email));
+    }
+
+    /**
+     * Runs {@code query} in its own read-only transaction unless the same read is already in
+     * flight, in which case its result is shared. The transaction is opened inside the
+     * single flight, so callers that wait hold no connection. A caller may be handed the
+     * result of a read that started just before its own write committed, which is no staler
+     * than what it would have read a moment earlier.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(String key, Supplier<T> query) {
+        // scatter-gathered reads ask every shard the same question, and each wants its own answer
+        int shard = ShardContext.current();
+        String scopedKey = shard < 0 ? key : shard + "/" + key;
+        return (T) reads.execute(scopedKey, () -> readOnlyTransaction.execute(status -> query.get()));
     }
 
     @Override
-    public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
     }
 
     @Override
-    public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+    @Transactional(readOnly = true)
+    public EmployeeSearchPage searchEmployees(EmployeeSearchField field, String prefix, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE));
+        String key = Employee.searchKey(prefix);
+
+        Slice<EmployeeView> slice = switch (field) {
+            case FIRST_NAME -> employeeRepository.findByFirstNameKeyStartingWithOrderByFirstNameKeyAscIdAsc(key, pageable);
+            case LAST_NAME -> employeeRepository.findByLastNameKeyStartingWithOrderByLastNameKeyAscIdAsc(key, pageable);
+            case EMAIL -> employeeRepository.findByEmailKeyStartingWithOrderByEmailKeyAscIdAsc(key, pageable);
+        };
+        return new EmployeeSearchPage(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
     }
 
     @Override
-    public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    public boolean updateEmployee(long id, EmployeeUpdate patch) {
+        if(softDelete && patch.getEmail() != null){
+            employeeRepository.purgeDeletedByEmailIn(List.of(patch.getEmail()));
+        }
+        int updated = employeeRepository.updateEmployee(id, patch.getFirstName(), patch.getLastName(),
+                patch.getEmail(), patch.getVersion());
+
+        // only a failed conditional update needs the extra lookup to tell stale from missing
+        if(updated == 0 && patch.getVersion() != null && employeeRepository.existsById(id)){
+            throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+        }
+        if(updated > 0){
+            eventPublisher.publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, id, null));
+        }
+        return updated > 0;
+    }
+
+    // the UPDATE holds the row lock until commit, so the read cannot see a later write
+    @Override
+    @Transactional
+    public Optional<EmployeeView> updateEmployeeAndGet(long id, EmployeeUpdate patch) {
+        return updateEmployee(id, patch) ? employeeRepository.findViewById(id) : Optional.empty();
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(long id) {
+        int deleted = softDelete
+                ? employeeRepository.softDeleteEmployee(id, null, Instant.now())
+                : employeeRepository.deleteEmployeeById(id);
+        if(deleted > 0){
+            eventPublisher.publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, id, null));
+        }
+        return deleted > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(long id, long version) {
+        int deleted = softDelete
+                ? employeeRepository.softDeleteEmployee(id, version, Instant.now())
+                : employeeRepository.deleteByIdAndVersion(id, version);
+
+        if(deleted == 0 && employeeRepository.existsById(id)){
+            throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+        }
+        if(deleted > 0){
+            eventPublisher.publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, id, null));
+        }
+        return deleted > 0;
     }
 }
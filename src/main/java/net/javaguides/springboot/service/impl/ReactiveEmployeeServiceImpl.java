@@ -0,0 +1,180 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.service.EmployeeDeleteMode;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private static final String MISSING_FIELDS = "firstName, lastName and email are required";
+
+    private ReactiveEmployeeRepository employeeRepository;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private boolean softDelete;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher,
+                                       @Value("${employee.delete.mode:hard}") EmployeeDeleteMode deleteMode) {
+        this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.softDelete = deleteMode == EmployeeDeleteMode.SOFT;
+    }
+
+    @Override
+    public Mono<EmployeeView> saveEmployee(Employee employee) {
+        if(employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null){
+            return Mono.error(new IllegalArgumentException(MISSING_FIELDS));
+        }
+        // as on the blocking path, the unique index is the duplicate check
+        return employeeRepository.insert(employee)
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    if(!DuplicateEmailException.isEmailConflict(e)){
+                        return Mono.error(e);
+                    }
+                    // the conflict may only be a tombstone; retried once, and only if one was purged
+                    Mono<Long> purged = softDelete ? employeeRepository.purgeDeletedByEmail(employee.getEmail()) : Mono.just(0L);
+                    return purged.flatMap(count -> count > 0
+                            ? employeeRepository.insert(employee)
+                            : Mono.error(new DuplicateEmailException(employee.getEmail(), e)));
+                })
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> DuplicateEmailException.isEmailConflict(e) ? new DuplicateEmailException(employee.getEmail(), e) : e)
+                .doOnNext(saved -> publish(EmployeeChangedEvent.Type.CREATED, saved.getId(), saved));
+    }
+
+    @Override
+    public Flux<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAll();
+    }
+
+    @Override
+    public Mono<EmployeePage> getEmployees(long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), EmployeeServiceImpl.MAX_PAGE_SIZE);
+
+        // fetch one extra row to learn whether another page exists without a count query
+        return employeeRepository.findAfter(after, pageSize + 1)
+                .collectList()
+                .map(employees -> {
+                    if(employees.size() <= pageSize){
+                        return new EmployeePage(employees, null);
+                    }
+                    List<EmployeeView> content = new ArrayList<>(employees.subList(0, pageSize));
+                    return new EmployeePage(content, content.get(pageSize - 1).getId());
+                });
+    }
+
+    @Override
+    public Mono<EmployeeView> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<EmployeeView> getEmployeeByEmail(String email) {
+        return employeeRepository.findByEmail(email);
+    }
+
+    @Override
+    public Mono<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    @Override
+    public Mono<EmployeeSearchPage> searchEmployees(EmployeeSearchField field, String prefix, int page, int size) {
+        int pageNumber = Math.max(page, 0);
+        int pageSize = Math.min(Math.max(size, 1), EmployeeServiceImpl.MAX_SEARCH_PAGE_SIZE);
+
+        return employeeRepository.search(field, prefix, (long) pageNumber * pageSize, pageSize + 1)
+                .collectList()
+                .map(employees -> employees.size() <= pageSize
+                        ? new EmployeeSearchPage(employees, pageNumber, pageSize, false)
+                        : new EmployeeSearchPage(new ArrayList<>(employees.subList(0, pageSize)), pageNumber, pageSize, true));
+    }
+
+    @Override
+    public Mono<Boolean> updateEmployee(long id, EmployeeUpdate patch) {
+        Mono<Long> purged = softDelete && patch.getEmail() != null
+                ? employeeRepository.purgeDeletedByEmail(patch.getEmail())
+                : Mono.just(0L);
+        return purged.then(employeeRepository.update(id, patch))
+                .flatMap(updated -> {
+                    if(updated > 0){
+                        publish(EmployeeChangedEvent.Type.UPDATED, id, null);
+                        return Mono.just(true);
+                    }
+                    // only a failed conditional update needs the extra lookup to tell stale from missing
+                    return patch.getVersion() == null ? Mono.just(false) : staleOrMissing(id);
+                });
+    }
+
+    // without a surrounding transaction a concurrent write can land in between; the view is
+    // still one committed row, only its version may be past the one this update produced
+    @Override
+    public Mono<EmployeeView> updateEmployeeAndGet(long id, EmployeeUpdate patch) {
+        return updateEmployee(id, patch)
+                .flatMap(updated -> updated ? employeeRepository.findById(id) : Mono.empty());
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(long id) {
+        Mono<Long> deleted = softDelete
+                ? employeeRepository.softDelete(id, null, Instant.now())
+                : employeeRepository.deleteById(id);
+        return deleted
+                .map(count -> count > 0)
+                .doOnNext(done -> {
+                    if(done){
+                        publish(EmployeeChangedEvent.Type.DELETED, id, null);
+                    }
+                });
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(long id, long version) {
+        Mono<Long> deletion = softDelete
+                ? employeeRepository.softDelete(id, version, Instant.now())
+                : employeeRepository.deleteByIdAndVersion(id, version);
+        return deletion
+                .flatMap(deleted -> {
+                    if(deleted > 0){
+                        publish(EmployeeChangedEvent.Type.DELETED, id, null);
+                        return Mono.just(true);
+                    }
+                    return staleOrMissing(id);
+                });
+    }
+
+    private Mono<Boolean> staleOrMissing(long id) {
+        return employeeRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? Mono.error(new ObjectOptimisticLockingFailureException(Employee.class, id))
+                        : Mono.just(false));
+    }
+
+    // there is no surrounding transaction, so listeners (ETag counter, change stream) run straight away
+    private void publish(EmployeeChangedEvent.Type type, long id, EmployeeView employee) {
+        eventPublisher.publishEvent(new EmployeeChangedEvent(type, id, employee));
+    }
+}
@@ -0,0 +1,465 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.shard.ShardContext;
+import net.javaguides.springboot.shard.ShardIds;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads employees over the shards of a {@link net.javaguides.springboot.shard.ShardRoutingDataSource},
+ * each served by the same {@link EmployeeServiceImpl}. A new employee goes to the shard its
+ * email hashes to, and its generated id carries that shard (see {@link ShardIds}), so every
+ * id-based call goes straight to one shard. Calls over the whole directory are
+ * scatter-gathered: all shards are asked in parallel, and the results are merged in the
+ * order one database would have returned them.
+ *
+ * <p>Each shard has its own unique email index. An update can move an email away from its
+ * home shard, so writes first check the other shards for the email as well; two concurrent
+ * writes of one email that land on different shards are not caught.
+ */
+public class ShardedEmployeeService implements EmployeeService, AutoCloseable {
+
+    private static final Comparator<EmployeeView> BY_ID = Comparator.comparingLong(EmployeeView::getId);
+
+    private EmployeeService delegate;
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private int shardCount;
+
+    private ExecutorService executor;
+
+    public ShardedEmployeeService(EmployeeService delegate, EmployeeRepository employeeRepository,
+                                  PlatformTransactionManager transactionManager, int shardCount, ExecutorService executor) {
+        this.delegate = delegate;
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardCount = shardCount;
+        this.executor = executor;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) throws ResourceNotFoundException {
+        int shard = ShardIds.shardForEmail(employee.getEmail(), shardCount);
+        if(employee.getEmail() != null && isTakenElsewhere(existingEmails(Set.of(employee.getEmail()), shard), employee.getEmail(), shard)){
+            throw new DuplicateEmailException(employee.getEmail());
+        }
+        return ShardContext.call(shard, () -> delegate.saveEmployee(employee));
+    }
+
+    @Override
+    public BatchResult saveEmployees(List<Employee> employees) {
+        BatchItemResult[] results = new BatchItemResult[employees.size()];
+        List<Set<String>> taken = existingEmails(emailsOf(employees), -1);
+        Map<Integer, List<Integer>> positions = new TreeMap<>();
+        for(int i = 0; i < employees.size(); i++){
+            String email = employees.get(i).getEmail();
+            int shard = ShardIds.shardForEmail(email, shardCount);
+            if(email != null && isTakenElsewhere(taken, email, shard)){
+                results[i] = BatchItemResult.failure(i, null, BatchItemResult.Status.FAILED,
+                        new DuplicateEmailException(email).getMessage());
+            } else {
+                positions.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<Integer, BatchResult> shardResults = scatter(positions.keySet(),
+                shard -> delegate.saveEmployees(select(employees, positions.get(shard))));
+        return merge(results, positions, shardResults);
+    }
+
+    @Override
+    public BatchResult updateEmployees(List<Employee> employees) {
+        BatchItemResult[] results = new BatchItemResult[employees.size()];
+        List<Set<String>> taken = existingEmails(emailsOf(employees), -1);
+        Map<Integer, List<Integer>> positions = new TreeMap<>();
+        for(int i = 0; i < employees.size(); i++){
+            Employee employee = employees.get(i);
+            int shard = ShardIds.shardOf(employee.getId());
+            if(shard >= shardCount){
+                results[i] = BatchItemResult.failure(i, employee.getId(), BatchItemResult.Status.NOT_FOUND,
+                        "Employee not found with given id "+employee.getId());
+            } else if(employee.getEmail() != null && isTakenElsewhere(taken, employee.getEmail(), shard)){
+                results[i] = BatchItemResult.failure(i, employee.getId(), BatchItemResult.Status.FAILED,
+                        new DuplicateEmailException(employee.getEmail()).getMessage());
+            } else {
+                positions.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<Integer, BatchResult> shardResults = scatter(positions.keySet(),
+                shard -> delegate.updateEmployees(select(employees, positions.get(shard))));
+        return merge(results, positions, shardResults);
+    }
+
+    @Override
+    public BatchResult deleteEmployees(List<Long> ids) {
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        Map<Integer, List<Integer>> positions = new TreeMap<>();
+        for(int i = 0; i < ids.size(); i++){
+            long id = ids.get(i);
+            int shard = ShardIds.shardOf(id);
+            if(shard >= shardCount){
+                results[i] = BatchItemResult.failure(i, id, BatchItemResult.Status.NOT_FOUND, "Employee not found with given id "+id);
+            } else {
+                positions.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<Integer, BatchResult> shardResults = scatter(positions.keySet(),
+                shard -> delegate.deleteEmployees(select(ids, positions.get(shard))));
+        return merge(results, positions, shardResults);
+    }
+
+    private static <T> List<T> select(List<T> items, List<Integer> positions) {
+        return positions.stream().map(items::get).toList();
+    }
+
+    // shard results carry their index within the shard's sub-list; mapped back to the request
+    private static BatchResult merge(BatchItemResult[] results, Map<Integer, List<Integer>> positions,
+                                     Map<Integer, BatchResult> shardResults) {
+        shardResults.forEach((shard, result) -> {
+            for(BatchItemResult item : result.getItems()){
+                int i = positions.get(shard).get(item.getIndex());
+                results[i] = new BatchItemResult(i, item.getId(), item.getStatus(), item.getError());
+            }
+        });
+        return BatchResult.of(Arrays.asList(results));
+    }
+
+    private static Set<String> emailsOf(List<Employee> employees) {
+        return employees.stream()
+                .map(Employee::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return per shard, which of {@code emails} it already holds; {@code skipShard} is not
+     *         asked and reported empty
+     */
+    private List<Set<String>> existingEmails(Set<String> emails, int skipShard) {
+        List<Set<String>> existing = new ArrayList<>(shardCount);
+        if(emails.isEmpty() || (shardCount == 1 && skipShard == 0)){
+            IntStream.range(0, shardCount).forEach(shard -> existing.add(Set.of()));
+            return existing;
+        }
+        List<Integer> shards = IntStream.range(0, shardCount).filter(shard -> shard != skipShard).boxed().toList();
+        Map<Integer, Set<String>> found = scatter(shards, shard -> readOnlyTransaction.execute(status ->
+                employeeRepository.findByEmailIn(emails).stream()
+                        .map(Employee::getEmail)
+                        .collect(Collectors.toCollection(HashSet::new))));
+        for(int shard = 0; shard < shardCount; shard++){
+            existing.add(found.getOrDefault(shard, Set.of()));
+        }
+        return existing;
+    }
+
+    private boolean isTakenElsewhere(List<Set<String>> existing, String email, int shard) {
+        for(int other = 0; other < shardCount; other++){
+            if(other != shard && existing.get(other).contains(email)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // update paths cannot throw the checked DuplicateEmailException, so name the unique index
+    // the way a local constraint violation would and let the controller map it to 409
+    private static DataIntegrityViolationException emailConflict(String email) {
+        return new DataIntegrityViolationException(
+                new DuplicateEmailException(email).getMessage()+" ("+Employee.EMAIL_INDEX+")");
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        List<EmployeeView> employees = new ArrayList<>();
+        scatter(allShards(), shard -> delegate.getAllEmployees()).values().forEach(employees::addAll);
+        // concatenated sorted runs, which the merge sort picks up as such
+        employees.sort(BY_ID);
+        return employees;
+    }
+
+    @Override
+    public EmployeePage getEmployees(long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), EmployeeServiceImpl.MAX_PAGE_SIZE);
+        Map<Integer, EmployeePage> pages = scatter(allShards(), shard -> delegate.getEmployees(after, pageSize));
+
+        List<EmployeeView> employees = new ArrayList<>();
+        boolean more = false;
+        for(EmployeePage page : pages.values()){
+            employees.addAll(page.getContent());
+            more |= page.getNextCursor() != null;
+        }
+        employees.sort(BY_ID);
+        if(!more && employees.size() <= pageSize){
+            return new EmployeePage(employees, null);
+        }
+        List<EmployeeView> content = new ArrayList<>(employees.subList(0, pageSize));
+        return new EmployeePage(content, content.get(pageSize - 1).getId());
+    }
+
+    /**
+     * K-way merge over keyset pages of every shard. Each page is its own short transaction,
+     * and the next page of a shard is fetched while the current one is consumed, so no
+     * shard holds a connection for as long as the consumer takes.
+     */
+    @Override
+    public void streamEmployees(Consumer<EmployeeView> consumer) {
+        List<ShardCursor> cursors = allShards().stream().map(ShardCursor::new).toList();
+        PriorityQueue<ShardCursor> heads = new PriorityQueue<>(shardCount, Comparator.comparing(ShardCursor::peek, BY_ID));
+        try {
+            for(ShardCursor cursor : cursors){
+                if(cursor.load()){
+                    heads.add(cursor);
+                }
+            }
+            while(!heads.isEmpty()){
+                ShardCursor cursor = heads.poll();
+                consumer.accept(cursor.peek());
+                if(cursor.advance()){
+                    heads.add(cursor);
+                }
+            }
+        } finally {
+            // the consumer may have given up half way, e.g. because the client went away
+            cursors.forEach(ShardCursor::cancel);
+        }
+    }
+
+    private final class ShardCursor {
+
+        private final int shard;
+
+        private List<EmployeeView> page = List.of();
+
+        private int position;
+
+        private Future<EmployeePage> next;
+
+        private ShardCursor(int shard) {
+            this.shard = shard;
+            this.next = fetch(0);
+        }
+
+        private Future<EmployeePage> fetch(long after) {
+            return executor.submit(() -> ShardContext.call(shard, () -> delegate.getEmployees(after, EmployeeServiceImpl.MAX_PAGE_SIZE)));
+        }
+
+        // false once the shard has nothing left
+        boolean load() {
+            if(next == null){
+                return false;
+            }
+            EmployeePage loaded = await(next);
+            page = loaded.getContent();
+            position = 0;
+            next = loaded.getNextCursor() == null ? null : fetch(loaded.getNextCursor());
+            return !page.isEmpty();
+        }
+
+        EmployeeView peek() {
+            return page.get(position);
+        }
+
+        boolean advance() {
+            return ++position < page.size() || load();
+        }
+
+        void cancel() {
+            if(next != null){
+                next.cancel(false);
+            }
+        }
+    }
+
+    @Override
+    public Optional<EmployeeView> getEmployeeById(long id) {
+        int shard = ShardIds.shardOf(id);
+        return shard < shardCount ? ShardContext.call(shard, () -> delegate.getEmployeeById(id)) : Optional.empty();
+    }
+
+    // the home shard first; only a miss there, e.g. an email changed since, asks the rest
+    @Override
+    public Optional<EmployeeView> getEmployeeByEmail(String email) {
+        int home = ShardIds.shardForEmail(email, shardCount);
+        Optional<EmployeeView> employee = ShardContext.call(home, () -> delegate.getEmployeeByEmail(email));
+        if(employee.isPresent() || shardCount == 1){
+            return employee;
+        }
+        List<Integer> others = allShards().stream().filter(shard -> shard != home).toList();
+        return scatter(others, shard -> delegate.getEmployeeByEmail(email)).values().stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+        int shard = ShardIds.shardOf(id);
+        return shard < shardCount ? ShardContext.call(shard, () -> delegate.getEmployeeVersion(id)) : Optional.empty();
+    }
+
+    /**
+     * Every shard contributes its pages up to and including the requested one, whose rows
+     * lie within their union; later pages therefore cost more round trips per shard, as
+     * OFFSET paging does on a single database. Keys are compared as Java strings, which
+     * matches the database order for the lower-cased ASCII keys stored.
+     */
+    @Override
+    public EmployeeSearchPage searchEmployees(EmployeeSearchField field, String prefix, int page, int size) {
+        int pageNumber = Math.max(page, 0);
+        int pageSize = Math.min(Math.max(size, 1), EmployeeServiceImpl.MAX_SEARCH_PAGE_SIZE);
+        Map<Integer, EmployeeSearchPage> shardPages = scatter(allShards(), shard -> {
+            List<EmployeeView> content = new ArrayList<>();
+            boolean hasNext = true;
+            for(int p = 0; p <= pageNumber && hasNext; p++){
+                EmployeeSearchPage result = delegate.searchEmployees(field, prefix, p, pageSize);
+                content.addAll(result.getContent());
+                hasNext = result.isHasNext();
+            }
+            return new EmployeeSearchPage(content, pageNumber, pageSize, hasNext);
+        });
+
+        List<EmployeeView> employees = new ArrayList<>();
+        boolean more = false;
+        for(EmployeeSearchPage shardPage : shardPages.values()){
+            employees.addAll(shardPage.getContent());
+            more |= shardPage.isHasNext();
+        }
+        employees.sort(Comparator.comparing((EmployeeView employee) -> Employee.searchKey(searchValue(field, employee)))
+                .thenComparing(BY_ID));
+
+        long from = (long) pageNumber * pageSize;
+        List<EmployeeView> content = from >= employees.size()
+                ? List.of()
+                : new ArrayList<>(employees.subList((int) from, (int) Math.min(from + pageSize, employees.size())));
+        return new EmployeeSearchPage(content, pageNumber, pageSize, more || employees.size() > from + pageSize);
+    }
+
+    private static String searchValue(EmployeeSearchField field, EmployeeView employee) {
+        return switch (field) {
+            case FIRST_NAME -> employee.getFirstName();
+            case LAST_NAME -> employee.getLastName();
+            case EMAIL -> employee.getEmail();
+        };
+    }
+
+    @Override
+    public boolean updateEmployee(long id, EmployeeUpdate patch) {
+        int shard = ShardIds.shardOf(id);
+        if(shard >= shardCount){
+            return false;
+        }
+        String email = patch.getEmail();
+        if(email != null && isTakenElsewhere(existingEmails(Set.of(email), shard), email, shard)){
+            throw emailConflict(email);
+        }
+        return ShardContext.call(shard, () -> delegate.updateEmployee(id, patch));
+    }
+
+    @Override
+    public Optional<EmployeeView> updateEmployeeAndGet(long id, EmployeeUpdate patch) {
+        int shard = ShardIds.shardOf(id);
+        if(shard >= shardCount){
+            return Optional.empty();
+        }
+        String email = patch.getEmail();
+        if(email != null && isTakenElsewhere(existingEmails(Set.of(email), shard), email, shard)){
+            throw emailConflict(email);
+        }
+        return ShardContext.call(shard, () -> delegate.updateEmployeeAndGet(id, patch));
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        int shard = ShardIds.shardOf(id);
+        return shard < shardCount && ShardContext.call(shard, () -> delegate.deleteEmployee(id));
+    }
+
+    @Override
+    public boolean deleteEmployee(long id, long version) {
+        int shard = ShardIds.shardOf(id);
+        return shard < shardCount && ShardContext.call(shard, () -> delegate.deleteEmployee(id, version));
+    }
+
+    // owns the executor it is given
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, shardCount).boxed().toList();
+    }
+
+    /**
+     * Runs {@code action} once per shard on the shard executor, all at once, and waits for
+     * every result. Results are keyed by shard, in the order the shards were given.
+     */
+    private <T> Map<Integer, T> scatter(Iterable<Integer> shards, IntFunction<T> action) {
+        Map<Integer, Future<T>> futures = new LinkedHashMap<>();
+        for(int shard : shards){
+            futures.put(shard, executor.submit(() -> ShardContext.call(shard, () -> action.apply(shard))));
+        }
+        Map<Integer, T> results = new LinkedHashMap<>();
+        try {
+            for(Map.Entry<Integer, Future<T>> future : futures.entrySet()){
+                results.put(future.getKey(), await(future.getValue()));
+            }
+        } finally {
+            // after a failure, shards that have not started yet are spared the work
+            futures.values().forEach(future -> future.cancel(false));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException runtimeException){
+                throw runtimeException;
+            }
+            if(e.getCause() instanceof Error error){
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.javaguides.springboot.shard;
+
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local stand-in for running migrations on every shard: Hibernate creates the schema on
+ * shard 0 only, and this replays H2's DDL script of it on the other in-memory shards. Must
+ * run after the shard 0 schema exists.
+ */
+public class H2ShardSchemaCopier implements InitializingBean {
+
+    private ShardRoutingDataSource shards;
+
+    public H2ShardSchemaCopier(ShardRoutingDataSource shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection connection = shards.getShard(0).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA NOSETTINGS")) {
+            while(script.next()){
+                String line = script.getString(1);
+                // row count comments, and the user every database already has
+                if(!line.startsWith("--") && !line.startsWith("CREATE USER")){
+                    ddl.add(line);
+                }
+            }
+        }
+        for(int shard = 1; shard < shards.getShardCount(); shard++){
+            try (Connection connection = shards.getShard(shard).getConnection(); Statement statement = connection.createStatement()) {
+                for(String line : ddl){
+                    statement.execute(line);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package net.javaguides.springboot.shard;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The shard the current thread works on. {@link ShardRoutingDataSource} reads it when a
+ * connection is fetched, and {@link ShardedSequenceGenerator} when an id is generated.
+ */
+public final class ShardContext {
+
+    public interface ShardCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the current shard, or -1 outside of {@link #call}
+     */
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? -1 : shard;
+    }
+
+    /**
+     * Runs {@code action} against {@code shard}. The action has to open its own
+     * transaction: a transaction already running on this thread is bound to the connection
+     * of whatever shard it started on, so calling in from one is refused.
+     */
+    public static <T, E extends Exception> T call(int shard, ShardCall<T, E> action) throws E {
+        if(TransactionSynchronizationManager.isActualTransactionActive()){
+            throw new IllegalStateException("Shard " + shard + " must be chosen before the transaction starts");
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.call();
+        } finally {
+            if(previous == null){
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
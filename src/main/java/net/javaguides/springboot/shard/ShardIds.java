@@ -0,0 +1,43 @@
+package net.javaguides.springboot.shard;
+
+import net.javaguides.springboot.model.Employee;
+
+/**
+ * Layout of sharded employee ids: the low {@link #SHARD_BITS} bits name the shard that
+ * holds the row, the rest is that shard's own sequence value. Ids stay ascending per shard,
+ * so ordering by id still works on each shard and across the merged result.
+ *
+ * <p>The layout fixes the shard of every existing row: shards can be added up to
+ * {@link #MAX_SHARDS}, but new rows are then placed by a different hash while old ids keep
+ * pointing where they were written.
+ */
+public final class ShardIds {
+
+    public static final int SHARD_BITS = 4;
+
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private ShardIds() {
+    }
+
+    public static long encode(long localId, int shard) {
+        return (localId << SHARD_BITS) | shard;
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id & (MAX_SHARDS - 1));
+    }
+
+    /**
+     * Home shard of an email. Case is ignored so that addresses differing only in case meet
+     * the same unique index.
+     */
+    public static int shardForEmail(String email, int shardCount) {
+        if(email == null){
+            return 0;
+        }
+        int hash = Employee.searchKey(email).hashCode();
+        // String.hashCode is weak in its low bits for short, similar strings
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+}
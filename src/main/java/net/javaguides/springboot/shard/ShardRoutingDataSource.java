@@ -0,0 +1,56 @@
+package net.javaguides.springboot.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard named by {@link ShardContext}, or of shard 0 when none
+ * is set (schema creation, startup checks). Like the read/write router it is only correct
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * holds the lookup back until the first statement.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<? extends DataSource> shards;
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        if(shards.isEmpty() || shards.size() > ShardIds.MAX_SHARDS){
+            throw new IllegalArgumentException("Between 1 and " + ShardIds.MAX_SHARDS + " shards are supported, got " + shards.size());
+        }
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for(int shard = 0; shard < shards.size(); shard++){
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int shard = ShardContext.current();
+        return shard < 0 ? null : shard;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for(DataSource shard : shards){
+            if(shard instanceof AutoCloseable closeable){
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package net.javaguides.springboot.shard;
+
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * The pooled employee sequence, with the shard encoded into the generated ids. Every shard
+ * has its own copy of the sequence, and so needs its own optimizer: a block of values taken
+ * from one shard's sequence must never be handed out for inserts into another.
+ *
+ * <p>Outside of a {@link ShardContext} the plain sequence value is returned, so ids are
+ * unchanged when sharding is off.
+ */
+public class ShardedSequenceGenerator implements IdentifierGenerator {
+
+    private final SequenceStyleGenerator[] sequences = new SequenceStyleGenerator[ShardIds.MAX_SHARDS];
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        for(int shard = 0; shard < sequences.length; shard++){
+            sequences[shard] = new SequenceStyleGenerator();
+            sequences[shard].configure(type, parameters, serviceRegistry);
+        }
+    }
+
+    // all of them name the same sequence, which is created once
+    @Override
+    public void registerExportables(Database database) {
+        for(SequenceStyleGenerator sequence : sequences){
+            sequence.registerExportables(database);
+        }
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        for(SequenceStyleGenerator sequence : sequences){
+            sequence.initialize(context);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        int shard = ShardContext.current();
+        if(shard < 0){
+            return sequences[0].generate(session, object);
+        }
+        long localId = ((Number) sequences[shard].generate(session, object)).longValue();
+        return ShardIds.encode(localId, shard);
+    }
+}
@@ -0,0 +1,75 @@
+package net.javaguides.springboot.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.ShardedEmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Replaces the auto-configured datasource with one pool per shard behind a shard router,
+ * and puts {@link ShardedEmployeeService} in front of the per-shard service. Enabled by the
+ * {@code sharded} profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties) {
+        return new ShardRoutingDataSource(properties.getShards().stream().map(HikariDataSource::new).toList());
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // the shard 0 schema is created by Hibernate, so copying waits for the entity manager factory
+    @Bean
+    @DependsOn("entityManagerFactory")
+    @ConditionalOnProperty(name = "employee.sharding.copy-h2-schema", havingValue = "true")
+    public H2ShardSchemaCopier h2ShardSchemaCopier(ShardRoutingDataSource shardRoutingDataSource) {
+        return new H2ShardSchemaCopier(shardRoutingDataSource);
+    }
+
+    // beneath the cache when there is one, which picks it up as its delegate
+    @Bean
+    @ConditionalOnProperty(name = "employee.cache.enabled", havingValue = "true")
+    public ShardedEmployeeService shardedEmployeeService(EmployeeServiceImpl employeeService, EmployeeRepository employeeRepository,
+                                                         PlatformTransactionManager transactionManager,
+                                                         ShardRoutingDataSource shardRoutingDataSource) {
+        return newShardedEmployeeService(employeeService, employeeRepository, transactionManager, shardRoutingDataSource);
+    }
+
+    // otherwise it is the service everything else is given
+    @Primary
+    @Bean
+    @ConditionalOnProperty(name = "employee.cache.enabled", havingValue = "false", matchIfMissing = true)
+    public ShardedEmployeeService primaryShardedEmployeeService(EmployeeServiceImpl employeeService, EmployeeRepository employeeRepository,
+                                                                PlatformTransactionManager transactionManager,
+                                                                ShardRoutingDataSource shardRoutingDataSource) {
+        return newShardedEmployeeService(employeeService, employeeRepository, transactionManager, shardRoutingDataSource);
+    }
+
+    // scatter-gather callers only wait on JDBC, which is what virtual threads are cheap for. The
+    // executor is not a bean of its own: any Executor bean would displace applicationTaskExecutor.
+    private static ShardedEmployeeService newShardedEmployeeService(EmployeeServiceImpl employeeService, EmployeeRepository employeeRepository,
+                                                                    PlatformTransactionManager transactionManager,
+                                                                    ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardedEmployeeService(employeeService, employeeRepository, transactionManager,
+                shardRoutingDataSource.getShardCount(), Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,21 @@
+package net.javaguides.springboot.shard;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One Hikari pool per shard, e.g. {@code employee.sharding.shards[0].jdbc-url}. The list
+ * order is the shard number, which ids carry, so shards may only ever be appended.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("employee.sharding")
+public class ShardingProperties {
+
+    private List<HikariConfig> shards = new ArrayList<>();
+}
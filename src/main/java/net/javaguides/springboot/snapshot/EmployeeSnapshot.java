@@ -0,0 +1,346 @@
+package net.javaguides.springboot.snapshot;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Read-only copy of the whole employee directory for lookups by id, held in an
+ * {@link OffHeapEmployeeTable}. It is loaded in the background once the application has
+ * started and rebuilt from scratch every rebuild interval; in between, committed changes
+ * are patched in from {@link EmployeeChangedEvent}s. Ids it cannot vouch for, and every id
+ * before the first load has finished, are answered with {@code null} so the caller goes to
+ * the database.
+ *
+ * <p>Readers take no lock in the common case: they read under an optimistic stamp and only
+ * fall back to the read lock if a change was patched in meanwhile.
+ *
+ * <p>At 10M rows the table is 2^24 slots (256 MiB) plus about 600 MB of records, none of it
+ * on the heap. The same rows as {@code EmployeeView}s in a map would be about 60M objects,
+ * some 2.5 GB of old generation that every concurrent mark has to trace and every full GC
+ * has to compact. Here a lookup allocates only the returned view and its three strings,
+ * which die young. A rebuild needs the old and the new table at once, and an old table's
+ * memory is only returned when the collector finds its buffers unreachable, so
+ * {@code -XX:MaxDirectMemorySize} should allow for about three times one table.
+ *
+ * <p>With {@code employee.snapshot.file} set, every rebuilt table is also written to that
+ * file, and the table being served is written once more on shutdown. On startup a file that
+ * passes the checks of {@link EmployeeSnapshotFile} is mapped and served right away, and
+ * the first rebuild, started at once in the background, replaces it with current rows.
+ * There is no change-tracking column to fetch only the rows that moved meanwhile, so
+ * {@code employee.snapshot.file-max-age} bounds how stale the served file may be; as the
+ * mapped pages live in the page cache, they do not count against the direct memory limit.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.snapshot.enabled", havingValue = "true")
+public class EmployeeSnapshot implements SmartLifecycle, MeterBinder {
+
+    private final StampedLock lock = new StampedLock();
+
+    private final ReentrantLock fileLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder failedRebuilds = new LongAdder();
+
+    private final LongAdder fileFailures = new LongAdder();
+
+    private ObjectProvider<EmployeeService> employeeService;
+
+    private Duration rebuildInterval;
+
+    private int expectedSize;
+
+    private int maxPendingChanges;
+
+    // null until the first load, and after a change could not be applied; written under the write lock
+    private volatile OffHeapEmployeeTable table;
+
+    // changes committed while a rebuild runs, replayed onto the new table; guarded by the write lock
+    private List<EmployeeChangedEvent> pending;
+
+    private boolean pendingOverflow;
+
+    private volatile long loadedAtMillis;
+
+    private volatile boolean running;
+
+    private ScheduledExecutorService scheduler;
+
+    private Path file;
+
+    private Duration fileMaxAge;
+
+    public EmployeeSnapshot(ObjectProvider<EmployeeService> employeeService,
+                            @Value("${employee.snapshot.rebuild-interval:10m}") Duration rebuildInterval,
+                            @Value("${employee.snapshot.expected-size:1000000}") int expectedSize,
+                            @Value("${employee.snapshot.max-pending-changes:100000}") int maxPendingChanges,
+                            @Value("${employee.snapshot.file:}") String file,
+                            @Value("${employee.snapshot.file-max-age:1h}") Duration fileMaxAge) {
+        this.employeeService = employeeService;
+        this.rebuildInterval = rebuildInterval;
+        this.expectedSize = expectedSize;
+        this.maxPendingChanges = maxPendingChanges;
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.fileMaxAge = fileMaxAge;
+    }
+
+    /**
+     * @return the employee, or {@code null} if the database has to be asked
+     */
+    public EmployeeView get(long id) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0){
+            try {
+                OffHeapEmployeeTable current = table;
+                long offset = current == null ? Long.MIN_VALUE : current.find(id);
+                ByteBuffer arena = current == null ? null : current.arena();
+                if(lock.validate(stamp)){
+                    return read(id, offset, arena);
+                }
+            } catch (IndexOutOfBoundsException e) {
+                // a torn view of a table being resized; retried under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        long offset;
+        ByteBuffer arena;
+        try {
+            OffHeapEmployeeTable current = table;
+            offset = current == null ? Long.MIN_VALUE : current.find(id);
+            arena = current == null ? null : current.arena();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return read(id, offset, arena);
+    }
+
+    // outside the lock: a published record never changes, and an arena that was grown away keeps its bytes
+    private EmployeeView read(long id, long offset, ByteBuffer arena) {
+        if(offset < 0){
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return OffHeapEmployeeTable.read(id, arena, (int) offset);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        long stamp = lock.writeLock();
+        try {
+            if(pending != null){
+                if(pending.size() < maxPendingChanges){
+                    pending.add(event);
+                } else {
+                    pendingOverflow = true;
+                }
+            }
+            if(table != null){
+                patch(table, event);
+            }
+        } catch (IllegalStateException e) {
+            // the table cannot follow any more; the database answers until the next rebuild
+            table = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static void patch(OffHeapEmployeeTable table, EmployeeChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> {
+                if(event.getEmployee() != null){
+                    table.apply(event.getEmployee());
+                } else {
+                    table.invalidate(event.getId());
+                }
+            }
+            case DELETED -> table.delete(event.getId());
+        }
+    }
+
+    /**
+     * Loads a new table from the database and swaps it in. Changes committed during the load
+     * are recorded and replayed onto the new table, so none is lost between the scan and the swap.
+     */
+    public void rebuild() {
+        long stamp = lock.writeLock();
+        try {
+            pending = new ArrayList<>();
+            pendingOverflow = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        OffHeapEmployeeTable loaded = null;
+        long readAtMillis = System.currentTimeMillis();
+        try {
+            OffHeapEmployeeTable current = table;
+            int sizeHint = current == null ? expectedSize : Math.max(expectedSize, current.size() + current.size() / 4);
+            OffHeapEmployeeTable next = new OffHeapEmployeeTable(sizeHint);
+            employeeService.getObject().streamEmployees(next::load);
+            // written before the replay, while nothing else can touch the new table
+            persist(next, readAtMillis);
+            loaded = next;
+        } finally {
+            stamp = lock.writeLock();
+            try {
+                // an overflowing backlog means changes were dropped; the old table stays until the next attempt
+                if(loaded != null && !pendingOverflow){
+                    for(EmployeeChangedEvent event : pending){
+                        patch(loaded, event);
+                    }
+                    table = loaded;
+                    loadedAtMillis = readAtMillis;
+                }
+                pending = null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private void persist(OffHeapEmployeeTable snapshotTable, long readAtMillis) {
+        if(file == null){
+            return;
+        }
+        // a rebuild and the write on shutdown would otherwise share the temporary file
+        fileLock.lock();
+        try {
+            EmployeeSnapshotFile.write(snapshotTable, file, readAtMillis);
+        } catch (IOException e) {
+            // the previous file, if any, is still whole; only the next warm start gets older data
+            fileFailures.increment();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void mapFile() {
+        if(file == null){
+            return;
+        }
+        try {
+            EmployeeSnapshotFile.Mapped mapped = EmployeeSnapshotFile.map(file, fileMaxAge);
+            if(mapped == null){
+                // stale, corrupt or of another format; the first rebuild writes a new one
+                Files.deleteIfExists(file);
+                return;
+            }
+            long stamp = lock.writeLock();
+            try {
+                table = mapped.table();
+                loadedAtMillis = mapped.readAtMillis();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } catch (IOException e) {
+            // unreadable: start cold, as without a file
+            fileFailures.increment();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // e.g. the database is unreachable: keep serving what we have and try again next time
+            failedRebuilds.increment();
+        }
+    }
+
+    public boolean isLoaded() {
+        return table != null;
+    }
+
+    public int getSize() {
+        OffHeapEmployeeTable current = table;
+        return current == null ? 0 : current.size();
+    }
+
+    public long getOffHeapBytes() {
+        OffHeapEmployeeTable current = table;
+        return current == null ? 0 : current.offHeapBytes();
+    }
+
+    @Override
+    public void start() {
+        mapFile();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    // no interrupt, as for the ingest flusher: a load in progress finishes on its daemon thread
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        long stamp = lock.readLock();
+        try {
+            if(table != null){
+                persist(table, loadedAtMillis);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // started before the web server, so the mapped file already answers the first requests
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.snapshot.size", this, EmployeeSnapshot::getSize).register(registry);
+        Gauge.builder("employee.snapshot.off.heap", this, EmployeeSnapshot::getOffHeapBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("employee.snapshot.age", this,
+                        snapshot -> snapshot.loadedAtMillis == 0 ? Double.NaN : (System.currentTimeMillis() - snapshot.loadedAtMillis) / 1000.0)
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("employee.snapshot.hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("employee.snapshot.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("employee.snapshot.rebuild.failures", failedRebuilds, LongAdder::sum).register(registry);
+        FunctionCounter.builder("employee.snapshot.file.failures", fileFailures, LongAdder::sum).register(registry);
+    }
+}
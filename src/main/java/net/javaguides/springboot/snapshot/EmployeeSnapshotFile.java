@@ -0,0 +1,169 @@
+package net.javaguides.springboot.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk form of an {@link OffHeapEmployeeTable}: a header, then the slot and arena buffers
+ * byte for byte. Reading it back maps both regions privately instead of parsing them, so a
+ * table of any size is usable as soon as its checksum has been verified; pages are loaded
+ * by the OS as lookups touch them, and a patched page is copied for this process only,
+ * leaving the file as written.
+ *
+ * <p>The header is big-endian: magic, format version, the byte order of the buffers,
+ * the time the data was read from the database, the table counters, and a CRC32C over the
+ * header and both regions. A file written by another format version or byte order, one
+ * older than the allowed age, or one whose checksum does not match is refused.
+ *
+ * <p>Files are written next to the target and moved over it, so a crash mid-write leaves
+ * the previous file in place. The arena is followed by a zero-filled hole for appends, which
+ * costs no disk space on filesystems with sparse files.
+ */
+public final class EmployeeSnapshotFile {
+
+    private static final int MAGIC = 0x454D5053;
+
+    // bump on any change to the header or buffer layout
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+
+    private static final int CRC_OFFSET = 40;
+
+    private static final int SLOT_BYTES = 16;
+
+    private EmployeeSnapshotFile() {
+    }
+
+    /**
+     * Writes {@code table}, which must not change meanwhile.
+     *
+     * @param readAtMillis when the rows were read from the database; bounds the age of the file
+     */
+    public static void write(OffHeapEmployeeTable table, Path path, long readAtMillis) throws IOException {
+        int slotBytes = table.capacity() * SLOT_BYTES;
+        int arenaLength = table.arenaPosition();
+        ByteBuffer slots = table.slots().duplicate().clear().limit(slotBytes);
+        ByteBuffer arena = table.arena().duplicate().clear().limit(arenaLength);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0)
+                .putInt(table.capacity())
+                .putInt(table.used())
+                .putInt(table.size())
+                .putInt(arenaLength)
+                .putInt(0)
+                .putLong(readAtMillis);
+        CRC32C crc = new CRC32C();
+        crc.update(header.array(), 0, CRC_OFFSET);
+        crc.update(slots.duplicate());
+        crc.update(arena.duplicate());
+        header.putLong(CRC_OFFSET, crc.getValue());
+
+        long headroom = Math.max(64 * 1024, arenaLength / 8);
+        long fileLength = Math.min((long) HEADER_BYTES + slotBytes + OffHeapEmployeeTable.MAX_ARENA_BYTES,
+                (long) HEADER_BYTES + slotBytes + arenaLength + headroom);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header.clear());
+            writeFully(channel, slots);
+            writeFully(channel, arena);
+            if(channel.position() < fileLength){
+                // extends the file to its full length without writing the gap
+                channel.write(ByteBuffer.allocate(1), fileLength - 1);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @return the mapped table, or {@code null} if the file is missing or must not be used
+     */
+    public static Mapped map(Path path, Duration maxAge) throws IOException {
+        if(!Files.isRegularFile(path)){
+            return null;
+        }
+        // a private mapping needs a channel opened for writing, even though nothing is written back
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileLength = channel.size();
+            if(fileLength < HEADER_BYTES){
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while(header.hasRemaining()){
+                if(channel.read(header, header.position()) < 0){
+                    return null;
+                }
+            }
+            header.flip();
+
+            int magic = header.getInt();
+            int formatVersion = header.getInt();
+            boolean littleEndian = header.getInt() == 1;
+            int capacity = header.getInt();
+            int used = header.getInt();
+            int size = header.getInt();
+            int arenaLength = header.getInt();
+            header.getInt();
+            long readAtMillis = header.getLong();
+            long expectedCrc = header.getLong();
+
+            if(magic != MAGIC || formatVersion != FORMAT_VERSION
+                    || littleEndian != (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN)){
+                return null;
+            }
+            if(System.currentTimeMillis() - readAtMillis > maxAge.toMillis()){
+                return null;
+            }
+            if(capacity < 16 || capacity > OffHeapEmployeeTable.MAX_CAPACITY || Integer.bitCount(capacity) != 1
+                    || used < 0 || used > capacity || size < 0 || size > used || arenaLength < 0){
+                return null;
+            }
+            long slotBytes = (long) capacity * SLOT_BYTES;
+            long arenaCapacity = fileLength - HEADER_BYTES - slotBytes;
+            if(arenaCapacity < arenaLength || arenaCapacity > OffHeapEmployeeTable.MAX_ARENA_BYTES){
+                return null;
+            }
+
+            MappedByteBuffer slots = channel.map(FileChannel.MapMode.PRIVATE, HEADER_BYTES, slotBytes);
+            MappedByteBuffer arena = channel.map(FileChannel.MapMode.PRIVATE, HEADER_BYTES + slotBytes, arenaCapacity);
+            CRC32C crc = new CRC32C();
+            crc.update(header.array(), 0, CRC_OFFSET);
+            crc.update(slots.duplicate());
+            crc.update(arena.duplicate().limit(arenaLength));
+            if(crc.getValue() != expectedCrc){
+                return null;
+            }
+            // the mappings stay valid after the channel is closed
+            OffHeapEmployeeTable table = new OffHeapEmployeeTable(slots.order(ByteOrder.nativeOrder()), capacity, used, size,
+                    arena.order(ByteOrder.nativeOrder()), arenaLength);
+            return new Mapped(table, readAtMillis);
+        }
+    }
+
+    /**
+     * @param readAtMillis when the mapped rows were read from the database
+     */
+    public record Mapped(OffHeapEmployeeTable table, long readAtMillis) {
+    }
+}
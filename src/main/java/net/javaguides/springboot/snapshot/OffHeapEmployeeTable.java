@@ -0,0 +1,317 @@
+package net.javaguides.springboot.snapshot;
+
+import net.javaguides.springboot.dto.EmployeeView;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Open-addressing hash table from employee id to a record in a UTF-8 arena, both held in
+ * direct buffers or in a private mapping of an {@link EmployeeSnapshotFile}. The heap only
+ * ever sees this object and its two buffers, whatever the number of rows, so the garbage
+ * collector has nothing to trace or copy for them.
+ *
+ * <p>A slot is 16 bytes: the id (0 marks a free slot, ids are positive) and the offset of
+ * its record, or one of two markers. {@link #STALE} means the row changed in a way the table
+ * could not follow; only a full reload fills the slot again. {@link #DELETED} means the row
+ * is gone for good, and since ids are never reused nothing may fill the slot again. A record
+ * is the version followed by first name, last name and email, each a 16-bit length and
+ * its UTF-8 bytes. Records are never changed once written: an update appends a new record
+ * and repoints the slot, and the old one stays as garbage until the next reload.
+ *
+ * <p>Not thread-safe; {@link EmployeeSnapshot} guards it. The one guarantee for racing
+ * readers is that the bytes of a record never change after its offset was published.
+ */
+public final class OffHeapEmployeeTable {
+
+    static final long STALE = -1;
+
+    static final long DELETED = -2;
+
+    private static final int SLOT_BYTES = 16;
+
+    // 16-byte slots, so 2^26 of them (1 GiB) is the largest power of two int offsets can address
+    static final int MAX_CAPACITY = 1 << 26;
+
+    static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private ByteBuffer slots;
+
+    private int capacity;
+
+    // keys present, markers included; drives resizing
+    private int used;
+
+    private int size;
+
+    private ByteBuffer arena;
+
+    private int arenaPosition;
+
+    /**
+     * @param expectedSize rows the table should take without resizing
+     */
+    public OffHeapEmployeeTable(int expectedSize) {
+        this.capacity = capacityFor(expectedSize);
+        this.slots = allocate(capacity * SLOT_BYTES);
+        // about 64 bytes a row for typical names and emails
+        this.arena = allocate((int) Math.min(MAX_ARENA_BYTES, Math.max(1024L, expectedSize * 64L)));
+    }
+
+    /**
+     * Wraps the buffers of a table written earlier, as they are; nothing is copied or checked.
+     */
+    OffHeapEmployeeTable(ByteBuffer slots, int capacity, int used, int size, ByteBuffer arena, int arenaPosition) {
+        this.slots = slots;
+        this.capacity = capacity;
+        this.used = used;
+        this.size = size;
+        this.arena = arena;
+        this.arenaPosition = arenaPosition;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // at most 75% full, so probe sequences stay short
+        long wanted = Math.max(16L, (long) Math.ceil(expectedSize / 0.75));
+        if(wanted > MAX_CAPACITY){
+            throw new IllegalStateException("A snapshot holds at most " + (MAX_CAPACITY / 4 * 3) + " employees");
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    /**
+     * @return the offset of the record of {@code id}, {@link #STALE}, {@link #DELETED}, or
+     *         any other negative value if the id is unknown
+     */
+    long find(long id) {
+        int mask = capacity - 1;
+        int slot = (int) mix(id) & mask;
+        // bounded, as a racing reader may see a table being rewritten under it
+        for(int probes = 0; probes < capacity; probes++){
+            long key = slots.getLong(slot * SLOT_BYTES);
+            if(key == 0){
+                return Long.MIN_VALUE;
+            }
+            if(key == id){
+                return slots.getLong(slot * SLOT_BYTES + 8);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the employee, or {@code null} if the table cannot answer for {@code id}
+     */
+    public EmployeeView get(long id) {
+        long offset = find(id);
+        return offset < 0 ? null : read(id, arena, (int) offset);
+    }
+
+    ByteBuffer arena() {
+        return arena;
+    }
+
+    ByteBuffer slots() {
+        return slots;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int used() {
+        return used;
+    }
+
+    int arenaPosition() {
+        return arenaPosition;
+    }
+
+    static EmployeeView read(long id, ByteBuffer arena, int offset) {
+        long version = arena.getLong(offset);
+        int position = offset + 8;
+        int firstNameLength = Short.toUnsignedInt(arena.getShort(position));
+        String firstName = decode(arena, position + 2, firstNameLength);
+        position += 2 + firstNameLength;
+        int lastNameLength = Short.toUnsignedInt(arena.getShort(position));
+        String lastName = decode(arena, position + 2, lastNameLength);
+        position += 2 + lastNameLength;
+        int emailLength = Short.toUnsignedInt(arena.getShort(position));
+        String email = decode(arena, position + 2, emailLength);
+        return new EmployeeView(id, firstName, lastName, email, version);
+    }
+
+    private static String decode(ByteBuffer arena, int offset, int length) {
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Adds a row read from the database. Meant for filling a new table, where the row is
+     * authoritative; markers and older versions are overwritten.
+     */
+    public void load(EmployeeView employee) {
+        long offset = append(employee);
+        setSlot(employee.getId(), offset);
+    }
+
+    /**
+     * Applies a committed change. Only moves an entry forward: an older version, or a row
+     * that is marked stale or deleted, is ignored, so changes may arrive out of order.
+     */
+    public void apply(EmployeeView employee) {
+        long current = find(employee.getId());
+        if(current == STALE || current == DELETED){
+            return;
+        }
+        if(current >= 0 && arena.getLong((int) current) >= employee.getVersion()){
+            return;
+        }
+        long offset;
+        try {
+            offset = append(employee);
+        } catch (IllegalStateException e) {
+            // no room left: dropping the entry is correct, just slower
+            setSlot(employee.getId(), STALE);
+            return;
+        }
+        setSlot(employee.getId(), offset);
+    }
+
+    /**
+     * The row changed, but the change does not say how.
+     */
+    public void invalidate(long id) {
+        if(find(id) != DELETED){
+            setSlot(id, STALE);
+        }
+    }
+
+    public void delete(long id) {
+        setSlot(id, DELETED);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offHeapBytes() {
+        return (long) slots.capacity() + arena.capacity();
+    }
+
+    private void setSlot(long id, long offset) {
+        int slot = slotOf(id);
+        long previous = slots.getLong(slot * SLOT_BYTES + 8);
+        if(slots.getLong(slot * SLOT_BYTES) == id){
+            size += (offset >= 0 ? 1 : 0) - (previous >= 0 ? 1 : 0);
+            slots.putLong(slot * SLOT_BYTES + 8, offset);
+            return;
+        }
+        if(used + 1 > capacity / 4 * 3){
+            resize(capacity * 2);
+            slot = slotOf(id);
+        }
+        // the offset first: a reader that finds the id must never see a blank offset
+        slots.putLong(slot * SLOT_BYTES + 8, offset);
+        slots.putLong(slot * SLOT_BYTES, id);
+        used++;
+        size += offset >= 0 ? 1 : 0;
+    }
+
+    // the slot holding id, or the free slot it would go into; there always is one below 75% load
+    private int slotOf(long id) {
+        int mask = capacity - 1;
+        int slot = (int) mix(id) & mask;
+        while(true){
+            long key = slots.getLong(slot * SLOT_BYTES);
+            if(key == id || key == 0){
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize(int newCapacity) {
+        if(newCapacity > MAX_CAPACITY){
+            throw new IllegalStateException("A snapshot holds at most " + (MAX_CAPACITY / 4 * 3) + " employees");
+        }
+        ByteBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+        slots = allocate(newCapacity * SLOT_BYTES);
+        capacity = newCapacity;
+        used = 0;
+        size = 0;
+        for(int slot = 0; slot < oldCapacity; slot++){
+            long key = oldSlots.getLong(slot * SLOT_BYTES);
+            if(key != 0){
+                setSlot(key, oldSlots.getLong(slot * SLOT_BYTES + 8));
+            }
+        }
+    }
+
+    private long append(EmployeeView employee) {
+        byte[] firstName = encode(employee.getFirstName());
+        byte[] lastName = encode(employee.getLastName());
+        byte[] email = encode(employee.getEmail());
+        int length = 8 + 6 + firstName.length + lastName.length + email.length;
+        ensureArena(length);
+
+        int offset = arenaPosition;
+        arena.putLong(offset, employee.getVersion());
+        int position = offset + 8;
+        position = putString(position, firstName);
+        position = putString(position, lastName);
+        putString(position, email);
+        arenaPosition += length;
+        return offset;
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > MAX_STRING_BYTES){
+            throw new IllegalStateException("Value too long for the snapshot");
+        }
+        return bytes;
+    }
+
+    private int putString(int position, byte[] bytes) {
+        arena.putShort(position, (short) bytes.length);
+        arena.put(position + 2, bytes);
+        return position + 2 + bytes.length;
+    }
+
+    // grown by copying; the old buffer stays intact for readers still holding it
+    private void ensureArena(int length) {
+        if((long) arenaPosition + length <= arena.capacity()){
+            return;
+        }
+        long needed = (long) arenaPosition + length;
+        if(needed > MAX_ARENA_BYTES){
+            throw new IllegalStateException("Snapshot arena is full");
+        }
+        int newCapacity = (int) Math.min(MAX_ARENA_BYTES, Math.max(needed, arena.capacity() * 2L));
+        ByteBuffer grown = allocate(newCapacity);
+        grown.put(0, arena, 0, arenaPosition);
+        arena = grown;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    // murmur3 finalizer: sequential ids would otherwise fill runs of neighbouring slots
+    private static long mix(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,138 @@
+package net.javaguides.springboot.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the hot paths once the context is up but before the instance takes traffic. Spring
+ * Boot only moves readiness to ACCEPTING_TRAFFIC after all application runners have
+ * returned, so {@code /actuator/health/readiness} stays OUT_OF_SERVICE until this is done.
+ *
+ * <p>It opens the pool's connections up front instead of on the first requests, then runs
+ * every read query of {@link EmployeeRepository} and the JSON mapping of the controller
+ * payloads for a number of iterations. That loads and links the classes, fills Hibernate's
+ * query plan cache and H2's statement cache, and gets the interpreter profiling the code.
+ * Only reads are issued, with keys that match nothing, so the data is never touched.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.warmup.enabled", havingValue = "true")
+public class EmployeeWarmup implements ApplicationRunner, MeterBinder {
+
+    static final String MISSING_EMAIL = "warmup@example.invalid";
+
+    private static final int PAGE_SIZE = 100;
+
+    private EmployeeRepository employeeRepository;
+
+    private DataSource dataSource;
+
+    private ObjectMapper objectMapper;
+
+    private int connections;
+
+    private int iterations;
+
+    private volatile long durationNanos;
+
+    public EmployeeWarmup(EmployeeRepository employeeRepository, DataSource dataSource, ObjectMapper objectMapper,
+                          @Value("${employee.warmup.connections:${spring.datasource.hikari.minimum-idle:10}}") int connections,
+                          @Value("${employee.warmup.iterations:200}") int iterations) {
+        this.employeeRepository = employeeRepository;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.connections = connections;
+        this.iterations = iterations;
+    }
+
+    // a failure propagates and stops the startup: an instance that cannot do this cannot serve either
+    @Override
+    public void run(ApplicationArguments args) throws SQLException, JsonProcessingException {
+        long start = System.nanoTime();
+        fillPool();
+        EmployeePage page = samplePage();
+        for(int i = 0; i < iterations; i++){
+            queryRepository();
+            serialize(page);
+        }
+        durationNanos = System.nanoTime() - start;
+    }
+
+    // all held at once, otherwise the pool would hand out the same connection every time
+    void fillPool() throws SQLException {
+        List<Connection> held = new ArrayList<>(connections);
+        try {
+            for(int i = 0; i < connections; i++){
+                held.add(dataSource.getConnection());
+            }
+        } finally {
+            for(Connection connection : held){
+                connection.close();
+            }
+        }
+    }
+
+    void queryRepository() {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE);
+        employeeRepository.findViewById(-1L);
+        employeeRepository.findViewByEmail(MISSING_EMAIL);
+        employeeRepository.findVersionById(-1L);
+        employeeRepository.findByEmail(MISSING_EMAIL);
+        employeeRepository.findByEmailIn(Set.of(MISSING_EMAIL));
+        employeeRepository.findExistingIds(List.of(-1L));
+        employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(Long.MAX_VALUE, page);
+        employeeRepository.findByFirstNameKeyStartingWithOrderByFirstNameKeyAscIdAsc(MISSING_EMAIL, page);
+        employeeRepository.findByLastNameKeyStartingWithOrderByLastNameKeyAscIdAsc(MISSING_EMAIL, page);
+        employeeRepository.findByEmailKeyStartingWithOrderByEmailKeyAscIdAsc(MISSING_EMAIL, page);
+    }
+
+    // both directions: responses are written from views and pages, request bodies read into Employee
+    void serialize(EmployeePage page) throws JsonProcessingException {
+        objectMapper.writeValueAsBytes(page);
+        objectMapper.writeValueAsBytes(page.getContent().get(0));
+        byte[] employee = objectMapper.writeValueAsBytes(Employee.builder()
+                .firstName("Warm")
+                .lastName("Up")
+                .email(MISSING_EMAIL)
+                .build());
+        objectMapper.readValue(employee, Employee.class);
+    }
+
+    private static EmployeePage samplePage() {
+        List<EmployeeView> content = new ArrayList<>(PAGE_SIZE);
+        for(int i = 1; i <= PAGE_SIZE; i++){
+            content.add(new EmployeeView(i, "First" + i, "Last" + i, "employee" + i + "@example.invalid", 0));
+        }
+        return new EmployeePage(content, (long) PAGE_SIZE);
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("employee.warmup.duration", this, TimeUnit.NANOSECONDS, EmployeeWarmup::getDurationNanos)
+                .register(registry);
+    }
+}
@@ -0,0 +1,83 @@
+package net.javaguides.springboot.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTests {
+
+    //Junit test for concurrent calls sharing one load
+    @DisplayName("Junit test for concurrent calls sharing one load")
+    @Test
+    public void givenConcurrentCallsForSameKey_whenExecute_thenLoaderRunsOnce() throws Exception {
+        //given = precondition or setup
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when - action or behaviour that we are going to test
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("id:1", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            awaitQuietly(release);
+            return "employee";
+        })));
+        loading.await(5, TimeUnit.SECONDS);
+        for(int i = 0; i < 7; i++){
+            results.add(executor.submit(() -> singleFlight.execute("id:1", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        // the waiters are blocked on the in-flight call until it is released
+        Thread.sleep(100);
+        release.countDown();
+
+        //then - verify the output
+        for(Future<String> result : results){
+            Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("employee");
+        }
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(singleFlight.getInFlightCount()).isZero();
+        executor.shutdown();
+    }
+
+    //Junit test for a failed load not being remembered
+    @DisplayName("Junit test for a failed load not being remembered")
+    @Test
+    public void givenFailedLoad_whenExecuteAgain_thenLoaderRunsAgain(){
+        //given = precondition or setup
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        //when - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalStateException.class, () -> {
+            singleFlight.execute("all", () -> {
+                throw new IllegalStateException("database down");
+            });
+        });
+        String value = singleFlight.execute("all", () -> "employees");
+
+        //then - verify the output
+        Assertions.assertThat(value).isEqualTo("employees");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,8 +2,19 @@ package net.javaguides.springboot.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSearchField;
+import net.javaguides.springboot.dto.EmployeeSearchPage;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.event.EmployeeChangeCounter;
+import net.javaguides.springboot.exception.DuplicateEmailException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.service.EmployeeService;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,9 +23,12 @@ import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
@@ -23,8 +37,9 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTests {
 
     @Autowired
@@ -33,6 +48,9 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeChangeCounter changeCounter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -68,14 +86,65 @@ public class EmployeeControllerTests {
 
             }
 
+    //Junit test for create Employee REST API with an existing email
+    @DisplayName("Junit test for create Employee REST API with an existing email")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409() throws Exception {
+        //given = precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willThrow(new DuplicateEmailException(employee.getEmail()));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isConflict())
+                .andDo(MockMvcResultHandlers.print());
+    }
+
+    //Junit test for batch create Employees REST API
+    @DisplayName("Junit test for batch create Employees REST API")
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnResultPerItem() throws Exception {
+        //given = precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().firstName("Shadab").lastName("Azhar").email("shadab5azhar@gmail.com").build());
+        listOfEmployees.add(Employee.builder().firstName("Tony").lastName("Stark").email("tony@yahoo.com").build());
+
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                .willReturn(BatchResult.of(List.of(
+                        BatchItemResult.success(0, 1L, BatchItemResult.Status.CREATED),
+                        BatchItemResult.failure(1, null, BatchItemResult.Status.FAILED, "Employee already exist with given Email tony@yahoo.com"))));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].status", CoreMatchers.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].status", CoreMatchers.is("FAILED")));
+    }
+
                 //Junit test for All Get Employees REST API
                     @DisplayName("Junit test for All Get Employees REST API")
                     @Test
                     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
                         //given = precondition or setup
-                        List<Employee> listOfEmployees = new ArrayList<>();
-                        listOfEmployees.add(Employee.builder().firstName("Shadab").lastName("Azhar").email("shadab5azhar@gmail.com").build());
-                        listOfEmployees.add(Employee.builder().firstName("Tony").lastName("Stark").email("tony@yahoo.com").build());
+                        List<EmployeeView> listOfEmployees = new ArrayList<>();
+                        listOfEmployees.add(new EmployeeView(1L, "Shadab", "Azhar", "shadab5azhar@gmail.com", 0L));
+                        listOfEmployees.add(new EmployeeView(2L, "Tony", "Stark", "tony@yahoo.com", 0L));
 
                         BDDMockito.given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
                         //when - action or behaviour that we are going to test
@@ -89,6 +158,116 @@ public class EmployeeControllerTests {
                                         CoreMatchers.is(listOfEmployees.size())));
                     }
 
+    //Junit test for Get All Employees REST API negotiated as CBOR
+    @DisplayName("Junit test for Get All Employees REST API negotiated as CBOR")
+    @Test
+    public void givenCborAccept_whenGetAllEmployees_thenReturnCborEncodedList() throws Exception {
+        //given = precondition or setup
+        List<EmployeeView> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(new EmployeeView(1L, "Shadab", "Azhar", "shadab5azhar@gmail.com", 0L));
+        listOfEmployees.add(new EmployeeView(2L, "Tony", "Stark", "tony@yahoo.com", 0L));
+        BDDMockito.given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+
+        //when - action or behaviour that we are going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        //then - verify the output
+        Assertions.assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        EmployeeView[] decoded = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), EmployeeView[].class);
+        Assertions.assertThat(decoded).extracting(EmployeeView::getEmail).containsExactly("shadab5azhar@gmail.com", "tony@yahoo.com");
+    }
+
+    //Junit test for keyset paginated Get Employees REST API
+    @DisplayName("Junit test for keyset paginated Get Employees REST API")
+    @Test
+    public void givenAfterAndLimit_whenGetEmployees_thenReturnPageWithNextCursor() throws Exception {
+        //given = precondition or setup
+        List<EmployeeView> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(new EmployeeView(11L, "Shadab", "Azhar", "shadab5azhar@gmail.com", 0L));
+        listOfEmployees.add(new EmployeeView(12L, "Tony", "Stark", "tony@yahoo.com", 0L));
+
+        BDDMockito.given(employeeService.getEmployees(10L, 2)).willReturn(new EmployeePage(listOfEmployees, 12L));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.size()",
+                        CoreMatchers.is(listOfEmployees.size())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor", CoreMatchers.is(12)));
+    }
+
+    //Junit test for NDJSON streaming Get Employees REST API
+    @DisplayName("Junit test for NDJSON streaming Get Employees REST API")
+    @Test
+    public void givenNdjsonAccept_whenGetEmployees_thenStreamOneEmployeePerLine() throws Exception {
+        //given = precondition or setup
+        EmployeeView employee = new EmployeeView(1L, "Shadab", "Azhar", "shadab5azhar@gmail.com", 0L);
+        EmployeeView employee1 = new EmployeeView(2L, "Tony", "Stark", "tony@yahoo.com", 0L);
+
+        BDDMockito.willAnswer((invocation) -> {
+            Consumer<EmployeeView> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee1);
+            return null;
+        }).given(employeeService).streamEmployees(ArgumentMatchers.any());
+
+        //when - action or behaviour that we are going to test
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        objectMapper.writeValueAsString(employee) + "\n" + objectMapper.writeValueAsString(employee1) + "\n"));
+    }
+
+    //Junit test for search Employees REST API
+    @DisplayName("Junit test for search Employees REST API")
+    @Test
+    public void givenPrefixAndField_whenSearchEmployees_thenReturnMatchingPage() throws Exception {
+        //given = precondition or setup
+        List<EmployeeView> views = List.of(new EmployeeView(1L, "Shadab", "Azhar", "shadab5azhar@gmail.com", 0L));
+        BDDMockito.given(employeeService.searchEmployees(EmployeeSearchField.EMAIL, "SHA", 0, 20))
+                .willReturn(new EmployeeSearchPage(views, 0, 20, false));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/search")
+                .param("q", "SHA")
+                .param("field", "email"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].email", CoreMatchers.is("shadab5azhar@gmail.com")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext", CoreMatchers.is(false)));
+    }
+
+    //Junit test for search Employees REST API with an unknown field
+    @DisplayName("Junit test for search Employees REST API with an unknown field")
+    @Test
+    public void givenUnknownField_whenSearchEmployees_thenReturn400() throws Exception {
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/search")
+                .param("q", "sha")
+                .param("field", "salary"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andDo(MockMvcResultHandlers.print());
+    }
+
              //Junit test for GET Employee by Id REST API (Positive Scenario)
 
             @DisplayName("Junit test for GET Employee by Id REST API (Positive Scenario)")
@@ -96,11 +275,7 @@ public class EmployeeControllerTests {
              public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
                  //given = precondition or setup
                 long employeeId = 1L;
-                Employee employee = Employee.builder()
-                        .firstName("Shadab")
-                        .lastName("Azhar")
-                        .email("shadab10azhar@gmail.com")
-                        .build();
+                EmployeeView employee = new EmployeeView(employeeId, "Shadab", "Azhar", "shadab10azhar@gmail.com", 0L);
 
                 BDDMockito.given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
 
@@ -112,11 +287,32 @@ public class EmployeeControllerTests {
                                 .andDo(MockMvcResultHandlers.print())
                                         .andExpect(MockMvcResultMatchers.jsonPath("$.firstName",CoreMatchers.is(employee.getFirstName())))
                                                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName",CoreMatchers.is(employee.getLastName())))
-                                                        .andExpect(MockMvcResultMatchers.jsonPath("$.email",CoreMatchers.is(employee.getEmail())));
+                                                        .andExpect(MockMvcResultMatchers.jsonPath("$.email",CoreMatchers.is(employee.getEmail())))
+                                                                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\""));
 
              }
 
 
+    //Junit test for GET Employee by email REST API
+    @DisplayName("Junit test for GET Employee by email REST API")
+    @Test
+    public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() throws Exception {
+        //given = precondition or setup
+        EmployeeView employee = new EmployeeView(1L, "Shadab", "Azhar", "shadab10azhar@gmail.com", 2L);
+        BDDMockito.given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        BDDMockito.given(employeeService.getEmployeeByEmail("nobody@gmail.com")).willReturn(Optional.empty());
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees").param("email", employee.getEmail()));
+        ResultActions missing = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees").param("email", "nobody@gmail.com"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\""));
+        missing.andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
     //Junit test for GET Employee by Id REST API (Negative Scenario)
 
     @DisplayName("Junit test for GET Employee by Id REST API (Negative Scenario)")
@@ -141,40 +337,36 @@ public class EmployeeControllerTests {
 
     }
     //Junit test for update Employee REST API (Positive Scenario)
-        @DisplayName("Junit test for update Employee REST API (Positive Scenario)")
-        @Test
-        public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdateEmployeeObject() throws Exception {
-            //given = precondition or setup
-            long employeeId = 1L;
-            Employee savedEmployee = Employee.builder()//Think as of DB object
-                    .firstName("Shadab")
-                    .lastName("Azhar")
-                    .email("shadab10azhar@gmail.com")
-                    .build();
-            Employee updatedEmployee = Employee.builder() // Need to be updated
-                    .firstName("Shad")
-                    .lastName("Azhar")
-                    .email("shad10azhar@gmail.com")
-                    .build();
-
-            BDDMockito.given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-            BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class))).willAnswer((invocation)->invocation.getArgument(0
-            ));
-            //when - action or behaviour that we are going to test
-
+    @DisplayName("Junit test for update Employee REST API (Positive Scenario)")
+    @Test
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdateEmployeeObject() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        EmployeeUpdate updatedEmployee = EmployeeUpdate.builder() // Need to be updated
+                .firstName("Shad")
+                .lastName("Azhar")
+                .email("shad10azhar@gmail.com")
+                .build();
 
-            ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",employeeId)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .content(objectMapper.writeValueAsString(updatedEmployee)));
+        BDDMockito.given(employeeService.updateEmployeeAndGet(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeUpdate.class)))
+                .willAnswer((invocation) -> {
+                    EmployeeUpdate patch = invocation.getArgument(1);
+                    return Optional.of(new EmployeeView(employeeId, patch.getFirstName(), patch.getLastName(), patch.getEmail(), 1L));
+                });
 
-            //then - verify the output
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
 
-            response.andExpect(MockMvcResultMatchers.status().isOk())
-                    .andDo(MockMvcResultHandlers.print())
-                    .andExpect(MockMvcResultMatchers.jsonPath("$.firstName",CoreMatchers.is(updatedEmployee.getFirstName())))
-                    .andExpect(MockMvcResultMatchers.jsonPath("$.lastName",CoreMatchers.is(updatedEmployee.getLastName())))
-                    .andExpect(MockMvcResultMatchers.jsonPath("$.email",CoreMatchers.is(updatedEmployee.getEmail())));
-        }
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName",CoreMatchers.is(updatedEmployee.getFirstName())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.lastName",CoreMatchers.is(updatedEmployee.getLastName())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email",CoreMatchers.is(updatedEmployee.getEmail())))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""));
+    }
 
     //Junit test for update Employee REST API (Negative Scenario)
     @DisplayName("Junit test for update Employee REST API (Negative Scenario)")
@@ -182,47 +374,180 @@ public class EmployeeControllerTests {
     public void givenUpdatedEmployee_whenUpdateEmployee_thenReturn404() throws Exception {
         //given = precondition or setup
         long employeeId = 1L;
-        Employee savedEmployee = Employee.builder()//Think as of DB object
-                .firstName("Shadab")
-                .lastName("Azhar")
-                .email("shadab10azhar@gmail.com")
-                .build();
-        Employee updatedEmployee = Employee.builder() // Need to be updated
+        EmployeeUpdate updatedEmployee = EmployeeUpdate.builder() // Need to be updated
                 .firstName("Shad")
                 .lastName("Azhar")
                 .email("shad10azhar@gmail.com")
                 .build();
 
-        BDDMockito.given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-        BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class))).willAnswer((invocation)->invocation.getArgument(0
-        ));
+        BDDMockito.given(employeeService.updateEmployeeAndGet(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeUpdate.class)))
+                .willReturn(Optional.empty());
+
         //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andDo(MockMvcResultHandlers.print());
+    }
 
+    //Junit test for update Employee REST API with missing fields
+    @DisplayName("Junit test for update Employee REST API with missing fields")
+    @Test
+    public void givenIncompleteEmployee_whenUpdateEmployee_thenReturn400() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        EmployeeUpdate updatedEmployee = EmployeeUpdate.builder()
+                .firstName("Shad")
+                .build();
 
+        //when - action or behaviour that we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedEmployee)));
 
         //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andDo(MockMvcResultHandlers.print());
+    }
 
-        response.andExpect(MockMvcResultMatchers.status().isNotFound())
+    //Junit test for patch Employee REST API with a stale version
+    @DisplayName("Junit test for patch Employee REST API with a stale version")
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenReturn409() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        EmployeeUpdate patch = EmployeeUpdate.builder()
+                .firstName("Shad")
+                .version(2L)
+                .build();
+
+        BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeUpdate.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isConflict())
+                .andDo(MockMvcResultHandlers.print());
+    }
+
+    //Junit test for conditional GET Employee by Id REST API
+    @DisplayName("Junit test for conditional GET Employee by Id REST API with an unchanged version")
+    @Test
+    public void givenMatchingIfNoneMatch_whenGetEmployeeById_thenReturn304WithoutLoadingEmployee() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        BDDMockito.given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""));
+        BDDMockito.verify(employeeService, BDDMockito.never()).getEmployeeById(employeeId);
+    }
+
+    //Junit test for conditional Get Employees REST API
+    @DisplayName("Junit test for conditional Get Employees REST API with an unchanged table")
+    @Test
+    public void givenMatchingIfNoneMatch_whenGetAllEmployees_thenReturn304WithoutLoadingEmployees() throws Exception {
+        //given = precondition or setup
+        BDDMockito.given(changeCounter.currentTag()).willReturn("lsx3a-42");
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"lsx3a-42\""));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andDo(MockMvcResultHandlers.print());
+        BDDMockito.verify(employeeService, BDDMockito.never()).getAllEmployees();
+    }
+
+    //Junit test for update Employee REST API with a stale If-Match
+    @DisplayName("Junit test for update Employee REST API with a stale If-Match")
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturn412() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        EmployeeUpdate updatedEmployee = EmployeeUpdate.builder()
+                .firstName("Shad")
+                .lastName("Azhar")
+                .email("shad10azhar@gmail.com")
+                .build();
+
+        BDDMockito.given(employeeService.updateEmployeeAndGet(ArgumentMatchers.eq(employeeId),
+                        ArgumentMatchers.argThat(patch -> Long.valueOf(2L).equals(patch.getVersion()))))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andDo(MockMvcResultHandlers.print());
+    }
+
+    //Junit test for delete employee REST API with If-Match
+    @DisplayName("Junit test for delete employee REST API with a current If-Match")
+    @Test
+    public void givenCurrentIfMatch_whenDeleteEmployee_thenConditionalDeleteIssued() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        BDDMockito.given(employeeService.deleteEmployee(employeeId, 3L)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\""));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNoContent())
                 .andDo(MockMvcResultHandlers.print());
+        BDDMockito.verify(employeeService, BDDMockito.never()).deleteEmployee(employeeId);
     }
 
     //Junit test for delete employee REST API
         @DisplayName("Junit test for delete employee REST API")
         @Test
-        public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
+        public void givenEmployeeId_whenDeleteEmployee_thenReturn204() throws Exception {
             //given = precondition or setup
             long employeeId = 1L;
-            BDDMockito.willDoNothing().given(employeeService).deleteEmployee(employeeId);
+            BDDMockito.given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
             //when - action or behaviour that we are going to test
             ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}",employeeId));
 
 
             //then - verify the output
-            response.andExpect(MockMvcResultMatchers.status().isOk())
+            response.andExpect(MockMvcResultMatchers.status().isNoContent())
                     .andDo(MockMvcResultHandlers.print());
         }
+
+    //Junit test for delete employee REST API (Negative Scenario)
+    @DisplayName("Junit test for delete employee REST API with a missing id")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+        //given = precondition or setup
+        long employeeId = 1L;
+        BDDMockito.given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}",employeeId));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andDo(MockMvcResultHandlers.print());
+    }
 }
@@ -0,0 +1,211 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangeCounter;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    @MockBean
+    private EmployeeChangeCounter changeCounter;
+
+    //Junit test for create Employee REST API on the reactive stack
+    @DisplayName("Junit test for create Employee REST API on the reactive stack")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee(){
+        //given = precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willReturn(Mono.just(new EmployeeView(1L, "Shadab", "Azhar", "shadab10azhar@gmail.com", 0L)));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.firstName").isEqualTo("Shadab");
+    }
+
+    //Junit test for create Employee REST API with a taken email on the reactive stack
+    @DisplayName("Junit test for create Employee REST API with a taken email on the reactive stack")
+    @Test
+    public void givenTakenEmail_whenCreateEmployee_thenConflict(){
+        //given = precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willReturn(Mono.error(new DuplicateEmailException(employee.getEmail())));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isEqualTo(409);
+    }
+
+    //Junit test for streaming all Employees on the reactive stack
+    @DisplayName("Junit test for streaming all Employees on the reactive stack")
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployees_thenReturnJsonArrayWithETag(){
+        //given = precondition or setup
+        BDDMockito.given(changeCounter.currentTag()).willReturn("\"abc-7\"");
+        BDDMockito.given(employeeService.getAllEmployees()).willReturn(Flux.just(
+                new EmployeeView(1L, "Shadab", "Azhar", "shadab10azhar@gmail.com", 0L),
+                new EmployeeView(2L, "Tony", "Stark", "tony@gmail.com", 0L)));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees").exchange();
+
+        //then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc-7\"")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].email").isEqualTo("tony@gmail.com");
+    }
+
+    //Junit test for GET Employee by Id with a current ETag on the reactive stack
+    @DisplayName("Junit test for GET Employee by Id with a current ETag on the reactive stack")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenNotModified(){
+        //given = precondition or setup
+        BDDMockito.given(employeeService.getEmployeeVersion(1L)).willReturn(Mono.just(3L));
+        BDDMockito.given(employeeService.getEmployeeById(1L))
+                .willReturn(Mono.just(new EmployeeView(1L, "Shadab", "Azhar", "shadab10azhar@gmail.com", 3L)));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isNotModified();
+    }
+
+    //Junit test for GET Employee by Id (Negative Scenario) on the reactive stack
+    @DisplayName("Junit test for GET Employee by Id (Negative Scenario) on the reactive stack")
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenNotFound(){
+        //given = precondition or setup
+        BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 1L).exchange();
+
+        //then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    //Junit test for update Employee REST API on the reactive stack
+    @DisplayName("Junit test for update Employee REST API on the reactive stack")
+    @Test
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee(){
+        //given = precondition or setup
+        EmployeeUpdate update = EmployeeUpdate.builder()
+                .firstName("Shaddu")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeService.updateEmployeeAndGet(ArgumentMatchers.eq(1L), ArgumentMatchers.any(EmployeeUpdate.class)))
+                .willReturn(Mono.just(new EmployeeView(1L, "Shaddu", "Azhar", "shadab10azhar@gmail.com", 1L)));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Shaddu");
+    }
+
+    //Junit test for update Employee REST API on the reactive stack (Negative Scenario)
+    @DisplayName("Junit test for update Employee REST API on the reactive stack (Negative Scenario)")
+    @Test
+    public void givenMissingEmployee_whenUpdateEmployee_thenReturn404(){
+        //given = precondition or setup
+        EmployeeUpdate update = EmployeeUpdate.builder()
+                .firstName("Shaddu")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeService.updateEmployeeAndGet(ArgumentMatchers.eq(1L), ArgumentMatchers.any(EmployeeUpdate.class)))
+                .willReturn(Mono.empty());
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    //Junit test for PUT with a stale If-Match on the reactive stack
+    @DisplayName("Junit test for PUT with a stale If-Match on the reactive stack")
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenPreconditionFailed(){
+        //given = precondition or setup
+        EmployeeUpdate update = EmployeeUpdate.builder()
+                .firstName("Shaddu")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeService.updateEmployeeAndGet(ArgumentMatchers.eq(1L), ArgumentMatchers.any(EmployeeUpdate.class)))
+                .willReturn(Mono.error(new ObjectOptimisticLockingFailureException(Employee.class, 1L)));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isEqualTo(412);
+    }
+}
@@ -0,0 +1,49 @@
+package net.javaguides.springboot.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class RespondAsyncConditionTests {
+
+    //Junit test for matching respond-async among several preferences
+    @DisplayName("Junit test for matching respond-async among several preferences")
+    @Test
+    public void givenRespondAsyncWithOtherPreferences_whenMatch_thenMatched(){
+        //given = precondition or setup
+        MockHttpServletRequest combined = request("respond-async, wait=5");
+        MockHttpServletRequest separate = request("return=minimal", "Respond-Async");
+        MockHttpServletRequest parameterised = request("wait=10, respond-async;foo=bar");
+
+        //when - action or behaviour that we are going to test
+        //then - verify the output
+        Assertions.assertThat(RespondAsyncCondition.INSTANCE.getMatchingCondition(combined)).isNotNull();
+        Assertions.assertThat(RespondAsyncCondition.INSTANCE.getMatchingCondition(separate)).isNotNull();
+        Assertions.assertThat(RespondAsyncCondition.INSTANCE.getMatchingCondition(parameterised)).isNotNull();
+    }
+
+    //Junit test for not matching requests without respond-async
+    @DisplayName("Junit test for not matching requests without respond-async")
+    @Test
+    public void givenNoRespondAsync_whenMatch_thenNotMatched(){
+        //given = precondition or setup
+        MockHttpServletRequest none = request();
+        MockHttpServletRequest other = request("wait=5, return=representation");
+        MockHttpServletRequest lookalike = request("respond-async-later");
+
+        //when - action or behaviour that we are going to test
+        //then - verify the output
+        Assertions.assertThat(RespondAsyncCondition.INSTANCE.getMatchingCondition(none)).isNull();
+        Assertions.assertThat(RespondAsyncCondition.INSTANCE.getMatchingCondition(other)).isNull();
+        Assertions.assertThat(RespondAsyncCondition.INSTANCE.getMatchingCondition(lookalike)).isNull();
+    }
+
+    private static MockHttpServletRequest request(String... preferHeaders) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        for(String preferHeader : preferHeaders){
+            request.addHeader(RespondAsyncCondition.PREFER_HEADER, preferHeader);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package net.javaguides.springboot.datasource;
+
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReadWriteRoutingDataSourceTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ReplicaLagTracker lagTracker;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setup(){
+        lagTracker = new ReplicaLagTracker(Duration.ofSeconds(1), clock::get);
+        routingDataSource = new ReadWriteRoutingDataSource(lagTracker);
+    }
+
+    @AfterEach
+    public void cleanup(){
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    //Junit test for routing a read-only transaction
+    @DisplayName("Junit test for routing a read-only transaction to the replica")
+    @Test
+    public void givenReadOnlyTransaction_whenDetermineLookupKey_thenReplica(){
+        //given = precondition or setup
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //when - action or behaviour that we are going to test
+        Object route = routingDataSource.determineCurrentLookupKey();
+
+        //then - verify the output
+        Assertions.assertThat(route).isEqualTo(ReadWriteRoutingDataSource.Route.REPLICA);
+    }
+
+    //Junit test for routing a read-write transaction
+    @DisplayName("Junit test for routing a read-write transaction to the primary")
+    @Test
+    public void givenReadWriteTransaction_whenDetermineLookupKey_thenPrimary(){
+        //given = precondition or setup
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        //when - action or behaviour that we are going to test
+        Object route = routingDataSource.determineCurrentLookupKey();
+
+        //then - verify the output
+        Assertions.assertThat(route).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+    }
+
+    //Junit test for read-your-writes stickiness
+    @DisplayName("Junit test for reads sticking to the primary within the lag window after a write")
+    @Test
+    public void givenRecentWrite_whenDetermineLookupKey_thenPrimaryUntilLagWindowPassed(){
+        //given = precondition or setup
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        lagTracker.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L, null));
+
+        //when - action or behaviour that we are going to test
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+        Object duringLag = routingDataSource.determineCurrentLookupKey();
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+        Object afterLag = routingDataSource.determineCurrentLookupKey();
+
+        //then - verify the output
+        Assertions.assertThat(duringLag).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+        Assertions.assertThat(afterLag).isEqualTo(ReadWriteRoutingDataSource.Route.REPLICA);
+    }
+}
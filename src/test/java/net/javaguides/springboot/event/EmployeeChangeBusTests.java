@@ -0,0 +1,142 @@
+package net.javaguides.springboot.event;
+
+import net.javaguides.springboot.dto.EmployeeView;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EmployeeChangeBusTests {
+
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+    private static class RecordingSink implements EmployeeChangeBus.ChangeSink {
+
+        private final List<EmployeeChange> changes = new ArrayList<>();
+
+        private final List<String> resyncs = new ArrayList<>();
+
+        private boolean dropped;
+
+        @Override
+        public void send(EmployeeChange change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void resync(String eventId) {
+            resyncs.add(eventId);
+        }
+
+        @Override
+        public void dropped() {
+            dropped = true;
+        }
+    }
+
+    //Junit test for replaying changes after Last-Event-ID
+    @DisplayName("Junit test for replaying changes after Last-Event-ID")
+    @Test
+    public void givenLastEventId_whenSubscribe_thenLaterChangesReplayed(){
+        //given = precondition or setup
+        EmployeeChangeBus changeBus = new EmployeeChangeBus(10, 10, Runnable::run, SEND_TIMEOUT, now::get);
+        RecordingSink first = new RecordingSink();
+        changeBus.subscribe(null, first);
+        for(long id = 1; id <= 3; id++){
+            changeBus.onEmployeeChanged(created(id));
+        }
+
+        //when - action or behaviour that we are going to test
+        RecordingSink resumed = new RecordingSink();
+        changeBus.subscribe(first.changes.get(0).getEventId(), resumed);
+
+        //then - verify the output
+        Assertions.assertThat(first.changes).extracting(EmployeeChange::getId).containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(resumed.changes).extracting(EmployeeChange::getId).containsExactly(2L, 3L);
+        Assertions.assertThat(resumed.resyncs).isEmpty();
+    }
+
+    //Junit test for resuming from a position that is no longer retained
+    @DisplayName("Junit test for resuming from a position that is no longer retained")
+    @Test
+    public void givenEvictedLastEventId_whenSubscribe_thenResyncRequested(){
+        //given = precondition or setup
+        EmployeeChangeBus changeBus = new EmployeeChangeBus(2, 10, Runnable::run, SEND_TIMEOUT, now::get);
+        RecordingSink first = new RecordingSink();
+        changeBus.subscribe(null, first);
+        for(long id = 1; id <= 4; id++){
+            changeBus.onEmployeeChanged(created(id));
+        }
+
+        //when - action or behaviour that we are going to test
+        RecordingSink resumed = new RecordingSink();
+        changeBus.subscribe(first.changes.get(0).getEventId(), resumed);
+
+        //then - verify the output
+        Assertions.assertThat(resumed.changes).isEmpty();
+        Assertions.assertThat(resumed.resyncs).containsExactly(first.changes.get(3).getEventId());
+    }
+
+    //Junit test for dropping a subscriber that falls behind
+    @DisplayName("Junit test for dropping a subscriber that falls behind")
+    @Test
+    public void givenSlowSubscriber_whenQueueOverflows_thenSubscriberDropped(){
+        //given = precondition or setup
+        EmployeeChangeBus changeBus = new EmployeeChangeBus(10, 2, tasks::add, SEND_TIMEOUT, now::get);
+        RecordingSink slow = new RecordingSink();
+        changeBus.subscribe(null, slow);
+
+        //when - action or behaviour that we are going to test
+        for(long id = 1; id <= 3; id++){
+            changeBus.onEmployeeChanged(created(id));
+        }
+        tasks.forEach(Runnable::run);
+
+        //then - verify the output
+        Assertions.assertThat(slow.dropped).isTrue();
+        Assertions.assertThat(changeBus.getSubscriberCount()).isZero();
+    }
+
+    //Junit test for dropping a subscriber whose send stalls
+    @DisplayName("Junit test for dropping a subscriber whose send stalls")
+    @Test
+    public void givenStalledSend_whenSendTimeoutPasses_thenSubscriberDropped(){
+        //given = precondition or setup
+        EmployeeChangeBus changeBus = new EmployeeChangeBus(10, 10, tasks::add, SEND_TIMEOUT, now::get);
+        RecordingSink stalled = new RecordingSink() {
+            @Override
+            public void send(EmployeeChange change) {
+                // the client stopped reading: the write blocks while the watchdog runs
+                now.addAndGet(SEND_TIMEOUT.toNanos() + 1);
+                changeBus.expireStalledSends();
+                super.send(change);
+            }
+        };
+        changeBus.subscribe(null, stalled);
+        changeBus.onEmployeeChanged(created(1L));
+
+        //when - action or behaviour that we are going to test
+        tasks.remove(0).run();
+        changeBus.onEmployeeChanged(created(2L));
+        new ArrayList<>(tasks).forEach(Runnable::run);
+
+        //then - verify the output
+        Assertions.assertThat(stalled.dropped).isTrue();
+        Assertions.assertThat(stalled.changes).extracting(EmployeeChange::getId).containsExactly(1L);
+        Assertions.assertThat(changeBus.getSubscriberCount()).isZero();
+    }
+
+    private static EmployeeChangedEvent created(long id) {
+        return new EmployeeChangedEvent(EmployeeChangedEvent.Type.CREATED, id,
+                new EmployeeView(id, "Employee", String.valueOf(id), "employee" + id + "@gmail.com", 0L));
+    }
+}
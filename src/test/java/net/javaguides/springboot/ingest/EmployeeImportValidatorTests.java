@@ -0,0 +1,84 @@
+package net.javaguides.springboot.ingest;
+
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportValidatorTests {
+
+    private static final int ROWS = 2500;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeImportValidator importValidator;
+
+    @BeforeEach
+    public void setup(){
+        importValidator = new EmployeeImportValidator(employeeRepository, null, 4, 2);
+    }
+
+    @AfterEach
+    public void cleanup(){
+        importValidator.close();
+    }
+
+    //Junit test for validating a window spanning several chunks
+    @DisplayName("Junit test for validating a window spanning several chunks")
+    @Test
+    public void givenRowsWithBrokenAndDuplicateEmployees_whenValidate_thenOnlyCleanRowsAccepted(){
+        //given = precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for(int i = 0; i < ROWS; i++){
+            employees.add(employee("employee" + i + "@gmail.com"));
+        }
+        // a duplicate in a later chunk, one already in the table, a missing field and a malformed email
+        employees.set(2100, employee("employee10@gmail.com"));
+        employees.set(1500, employee("shadab5azhar@gmail.com"));
+        employees.get(20).setLastName(null);
+        employees.set(30, employee("not-an-email"));
+        BDDMockito.given(employeeRepository.findByEmailIn(ArgumentMatchers.anyCollection())).willAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.contains("shadab5azhar@gmail.com") ? List.of(employee("shadab5azhar@gmail.com")) : List.of();
+        });
+
+        //when - action or behaviour that we are going to test
+        ValidatedBatch batch = importValidator.validate(employees);
+
+        //then - verify the output
+        Assertions.assertThat(batch.rejected()).extracting(BatchItemResult::getIndex).containsExactly(20, 30, 1500, 2100);
+        Assertions.assertThat(batch.rejected().get(3).getError()).contains("employee10@gmail.com");
+        Assertions.assertThat(batch.employees()).hasSize(ROWS - 4);
+        for(int i = 0; i < batch.employees().size(); i++){
+            Assertions.assertThat(batch.employees().get(i)).isSameAs(employees.get(batch.positions()[i]));
+        }
+        // one IN query per chunk of 1000 rows
+        verify(employeeRepository, times(3)).findByEmailIn(ArgumentMatchers.anyCollection());
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email(email)
+                .build();
+    }
+}
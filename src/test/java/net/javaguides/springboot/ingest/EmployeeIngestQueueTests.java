@@ -0,0 +1,94 @@
+package net.javaguides.springboot.ingest;
+
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.IngestStatus;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeIngestQueueTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeIngestQueue ingestQueue;
+
+    private Employee employee;
+
+    private Employee employee1;
+
+    @BeforeEach
+    public void setup(){
+        // the flusher thread is not started, tests flush explicitly
+        ingestQueue = new EmployeeIngestQueue(employeeService, 2, 10, Duration.ofMillis(50), 100, Duration.ofMinutes(10));
+        employee = Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build();
+        employee1 = Employee.builder()
+                .firstName("Tony")
+                .lastName("Stark")
+                .email("tony@yahoo.com")
+                .build();
+    }
+
+    //Junit test for flushing queued employees as one batch
+    @DisplayName("Junit test for flushing queued employees as one batch")
+    @Test
+    public void givenQueuedEmployees_whenFlushed_thenStatusesResolvedFromOneBatch(){
+        //given = precondition or setup
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                .willReturn(BatchResult.of(List.of(
+                        BatchItemResult.success(0, 7L, BatchItemResult.Status.CREATED),
+                        BatchItemResult.failure(1, null, BatchItemResult.Status.FAILED, "Employee already exist with given Email tony@yahoo.com"))));
+        String trackingId = ingestQueue.submit(employee).get().getTrackingId();
+        String trackingId1 = ingestQueue.submit(employee1).get().getTrackingId();
+
+        //when - action or behaviour that we are going to test
+        ingestQueue.flushQueued();
+
+        //then - verify the output
+        verify(employeeService, times(1)).saveEmployees(List.of(employee, employee1));
+        Assertions.assertThat(ingestQueue.getStatus(trackingId).get().getState()).isEqualTo(IngestStatus.State.CREATED);
+        Assertions.assertThat(ingestQueue.getStatus(trackingId).get().getId()).isEqualTo(7L);
+        Assertions.assertThat(ingestQueue.getStatus(trackingId1).get().getState()).isEqualTo(IngestStatus.State.FAILED);
+    }
+
+    //Junit test for backpressure on a full queue
+    @DisplayName("Junit test for backpressure on a full queue")
+    @Test
+    public void givenFullQueue_whenSubmit_thenRejected(){
+        //given = precondition or setup
+        ingestQueue.submit(employee);
+        ingestQueue.submit(employee1);
+
+        //when - action or behaviour that we are going to test
+        Optional<IngestStatus> status = ingestQueue.submit(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john.cena@gmail.com")
+                .build());
+
+        //then - verify the output
+        Assertions.assertThat(status).isEmpty();
+        Assertions.assertThat(ingestQueue.getQueueSize()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,115 @@
+package net.javaguides.springboot.ratelimit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimitFilterTests {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+    // 2 requests per second with a burst of 3
+    private final RateLimitFilter filter = new RateLimitFilter(new RateLimiter(2, 3, 100, now::get));
+
+    //Junit test for rejecting a client over its burst
+    @DisplayName("Junit test for rejecting a client over its burst")
+    @Test
+    public void givenBurstUsedUp_whenRequest_thenTooManyRequestsWithRetryAfter() throws Exception {
+        //given = precondition or setup
+        for(int i = 0; i < 3; i++){
+            Assertions.assertThat(perform("10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        //when - action or behaviour that we are going to test
+        MockHttpServletResponse response = perform("10.0.0.1");
+
+        //then - verify the output
+        Assertions.assertThat(response.getStatus()).isEqualTo(429);
+        Assertions.assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    //Junit test for clients being limited independently
+    @DisplayName("Junit test for clients being limited independently")
+    @Test
+    public void givenOneClientLimited_whenOtherClientRequests_thenAllowed() throws Exception {
+        //given = precondition or setup
+        for(int i = 0; i < 4; i++){
+            perform("10.0.0.1");
+        }
+
+        //when - action or behaviour that we are going to test
+        MockHttpServletResponse response = perform("10.0.0.2");
+
+        //then - verify the output
+        Assertions.assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    //Junit test for tokens refilling over time
+    @DisplayName("Junit test for tokens refilling over time")
+    @Test
+    public void givenLimitedClient_whenTimePasses_thenAllowedAgain() throws Exception {
+        //given = precondition or setup
+        for(int i = 0; i < 4; i++){
+            perform("10.0.0.1");
+        }
+
+        //when - action or behaviour that we are going to test
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        MockHttpServletResponse response = perform("10.0.0.1");
+
+        //then - verify the output
+        Assertions.assertThat(response.getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform("10.0.0.1").getStatus()).isEqualTo(429);
+    }
+
+    //Junit test for a client-chosen header not buying a fresh bucket
+    @DisplayName("Junit test for a client-chosen header not buying a fresh bucket")
+    @Test
+    public void givenLimitedAddress_whenNewApiKeyHeaderSent_thenStillLimited() throws Exception {
+        //given = precondition or setup
+        for(int i = 0; i < 3; i++){
+            perform("10.0.0.1");
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-API-Key", "rotated-" + System.nanoTime());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when - action or behaviour that we are going to test
+        filter.doFilter(request, response, new MockFilterChain());
+
+        //then - verify the output
+        Assertions.assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    //Junit test for the number of buckets staying bounded
+    @DisplayName("Junit test for the number of buckets staying bounded")
+    @Test
+    public void givenManyClients_whenTheyRequest_thenBucketCountBounded(){
+        //given = precondition or setup
+        RateLimiter rateLimiter = new RateLimiter(2, 3, 32, now::get);
+
+        //when - action or behaviour that we are going to test
+        for(int i = 0; i < 10_000; i++){
+            rateLimiter.tryAcquire("ip:10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        //then - verify the output
+        Assertions.assertThat(rateLimiter.size()).isLessThanOrEqualTo(32);
+    }
+
+    private MockHttpServletResponse perform(String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -1,13 +1,19 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.dto.EmployeeView;
 import net.javaguides.springboot.model.Employee;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @DataJpaTest
 public class EmployeeRepositoryTests {
@@ -104,5 +110,168 @@ public class EmployeeRepositoryTests {
         assertThat(employeeDB).isNotNull();
     }
 
+    //Junit test for keyset page operation
+    @DisplayName("Junit test for keyset page operation")
+    @Test
+    public void givenEmployeeList_whenFindByIdGreaterThan_thenReturnNextEmployeesInIdOrder(){
+        //given = precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john.cena@gmail.com")
+                .build());
+        Employee employee2 = employeeRepository.save(Employee.builder()
+                .firstName("Tony")
+                .lastName("Stark")
+                .email("tony@yahoo.com")
+                .build());
+        // ids only have to be unique, not issued in insertion order
+        List<Long> ids = Stream.of(employee, employee1, employee2).map(Employee::getId).sorted().toList();
+
+        //when - action or behaviour that we are going to test
+        List<EmployeeView> firstPage = employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        // the continuation cursor is the id of the last row of the page
+        long cursor = firstPage.get(firstPage.size() - 1).getId();
+        List<EmployeeView> secondPage = employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, 2));
+        List<EmployeeView> lastPage = employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(
+                secondPage.get(secondPage.size() - 1).getId(), PageRequest.of(0, 2));
+
+        //then - verify the output
+        assertThat(firstPage).extracting(EmployeeView::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(cursor).isEqualTo(ids.get(1));
+        assertThat(secondPage).extracting(EmployeeView::getId).containsExactly(ids.get(2));
+        assertThat(lastPage).isEmpty();
+    }
+
+    //Junit test for get employees by email list operation
+    @DisplayName("Junit test for get employees by email list operation")
+    @Test
+    public void givenEmployeeList_whenFindByEmailIn_thenReturnOnlyMatchingEmployees(){
+        //given = precondition or setup
+        employeeRepository.save(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+        employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john.cena@gmail.com")
+                .build());
+
+        //when - action or behaviour that we are going to test
+        List<Employee> employeeList = employeeRepository.findByEmailIn(List.of("john.cena@gmail.com", "nobody@gmail.com"));
+
+        //then - verify the output
+        assertThat(employeeList).hasSize(1);
+        assertThat(employeeList.get(0).getEmail()).isEqualTo("john.cena@gmail.com");
+    }
+
+    //Junit test for update employee operation
+    @DisplayName("Junit test for update employee operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateEmployee_thenOnlyGivenFieldsChangeAndVersionIncrements(){
+        //given = precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+
+        //when - action or behaviour that we are going to test
+        int updated = employeeRepository.updateEmployee(employee.getId(), "Shaddu", null, null, employee.getVersion());
+        int stale = employeeRepository.updateEmployee(employee.getId(), "Shad", null, null, employee.getVersion());
+
+        //then - verify the output
+        Employee employeeDB = employeeRepository.findById(employee.getId()).get();
+        assertThat(updated).isEqualTo(1);
+        assertThat(stale).isEqualTo(0);
+        assertThat(employeeDB.getFirstName()).isEqualTo("Shaddu");
+        assertThat(employeeDB.getLastName()).isEqualTo("Azhar");
+        assertThat(employeeDB.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
 
+    //Junit test for case-insensitive last name prefix search operation
+    @DisplayName("Junit test for case-insensitive last name prefix search operation")
+    @Test
+    public void givenEmployeeList_whenSearchByLastNamePrefix_thenReturnMatchingViewsInKeyOrder(){
+        //given = precondition or setup
+        employeeRepository.save(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+        employeeRepository.save(Employee.builder()
+                .firstName("Imran")
+                .lastName("azmi")
+                .email("imran.azmi@gmail.com")
+                .build());
+        employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john.cena@gmail.com")
+                .build());
+
+        //when - action or behaviour that we are going to test
+        Slice<EmployeeView> employeeViews = employeeRepository.findByLastNameKeyStartingWithOrderByLastNameKeyAscIdAsc("az", PageRequest.of(0, 10));
+
+        //then - verify the output
+        assertThat(employeeViews.getContent()).extracting(EmployeeView::getLastName).containsExactly("Azhar", "azmi");
+        assertThat(employeeViews.hasNext()).isFalse();
+    }
+
+    //Junit test for soft delete and purge operations
+    @DisplayName("Junit test for soft delete and purge operations")
+    @Test
+    public void givenSoftDeletedEmployee_whenRead_thenHiddenUntilPurged(){
+        //given = precondition or setup
+        Employee employee = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+        Instant deletedAt = Instant.now().minus(Duration.ofDays(8));
+
+        //when - action or behaviour that we are going to test
+        int deleted = employeeRepository.softDeleteEmployee(employee.getId(), null, deletedAt);
+        int deletedAgain = employeeRepository.softDeleteEmployee(employee.getId(), null, deletedAt);
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+        assertThat(employeeRepository.findViewById(employee.getId())).isEmpty();
+        assertThat(employeeRepository.existsById(employee.getId())).isFalse();
+        assertThat(employeeRepository.deleteEmployeeById(employee.getId())).isZero();
+        assertThat(employeeRepository.purgeDeleted(Instant.now().minus(Duration.ofDays(7)), 100)).isEqualTo(1);
+    }
+
+    //Junit test for reusing the email of a soft-deleted employee
+    @DisplayName("Junit test for reusing the email of a soft-deleted employee")
+    @Test
+    public void givenSoftDeletedEmployee_whenPurgeByEmail_thenEmailFree(){
+        //given = precondition or setup
+        Employee employee = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+        employeeRepository.softDeleteEmployee(employee.getId(), null, Instant.now());
+
+        //when - action or behaviour that we are going to test
+        int purged = employeeRepository.purgeDeletedByEmailIn(List.of("shadab5azhar@gmail.com"));
+        Employee replacement = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+
+        //then - verify the output
+        assertThat(purged).isEqualTo(1);
+        assertThat(replacement.getId()).isNotEqualTo(employee.getId());
+    }
 }
@@ -0,0 +1,182 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.CachingEmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingEmployeeServiceTests {
+
+    @Mock
+    private EmployeeServiceImpl delegate;
+
+    private CachingEmployeeService employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        employeeService = new CachingEmployeeService(delegate, 2, Duration.ofMinutes(10));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build();
+    }
+
+    //Junit test for getEmployeeById served from cache
+    @DisplayName("Junit test for getEmployeeById served from cache")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeById_thenDelegateCalledOnce(){
+        //given = precondition or setup
+        BDDMockito.given(delegate.getEmployeeById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action or behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        EmployeeView cachedEmployee = employeeService.getEmployeeById(1L).get();
+
+        //then - verify the output
+        Assertions.assertThat(cachedEmployee.getEmail()).isEqualTo(employee.getEmail());
+        verify(delegate, times(1)).getEmployeeById(1L);
+        Assertions.assertThat(employeeService.getStats().getHits()).isEqualTo(1);
+        Assertions.assertThat(employeeService.getStats().getMisses()).isEqualTo(1);
+    }
+
+    //Junit test for deleteEmployee invalidating the cache
+    @DisplayName("Junit test for deleteEmployee invalidating id and email entries")
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenIdAndEmailEntriesInvalidated() throws ResourceNotFoundException {
+        //given = precondition or setup
+        BDDMockito.given(delegate.getEmployeeById(1L)).willReturn(Optional.of(EmployeeView.of(employee)), Optional.empty());
+        BDDMockito.given(delegate.saveEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArgument(0));
+        employeeService.getEmployeeById(1L);
+
+        //when - action or behaviour that we are going to test
+        employeeService.deleteEmployee(1L);
+
+        //then - verify the output
+        Assertions.assertThat(employeeService.getEmployeeById(1L)).isEmpty();
+        Assertions.assertThat(employeeService.saveEmployee(employee)).isNotNull();
+        verify(delegate, times(2)).getEmployeeById(1L);
+    }
+
+    //Junit test for saveEmployee duplicate check served from the email index
+    @DisplayName("Junit test for saveEmployee duplicate check served from the email index")
+    @Test
+    public void givenCachedEmail_whenSaveEmployee_thenThrowsWithoutDelegate() throws ResourceNotFoundException {
+        //given = precondition or setup
+        BDDMockito.given(delegate.getEmployeeById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
+        employeeService.getEmployeeById(1L);
+
+        //when - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+
+        //then - verify the output
+        verify(delegate, never()).saveEmployee(any(Employee.class));
+    }
+
+    //Junit test for size-bounded eviction
+    @DisplayName("Junit test for size-bounded eviction")
+    @Test
+    public void givenFullCache_whenGetAnotherEmployee_thenLeastRecentlyUsedEvicted(){
+        //given = precondition or setup
+        for(long id = 1; id <= 3; id++){
+            BDDMockito.given(delegate.getEmployeeById(id)).willReturn(Optional.of(new EmployeeView(id, "Employee",
+                    String.valueOf(id), "employee" + id + "@gmail.com", 0L)));
+        }
+
+        //when - action or behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(2L);
+        employeeService.getEmployeeById(3L);
+        employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        verify(delegate, times(2)).getEmployeeById(1L);
+        Assertions.assertThat(employeeService.getStats().getEvictions()).isEqualTo(2);
+        Assertions.assertThat(employeeService.getStats().getSize()).isEqualTo(2);
+    }
+
+    //Junit test for a read racing an update not caching the old row
+    @DisplayName("Junit test for a read racing an update not caching the old row")
+    @Test
+    public void givenUpdateDuringRead_whenGetEmployeeById_thenOldRowNotCached(){
+        //given = precondition or setup
+        EmployeeView oldRow = EmployeeView.of(employee);
+        EmployeeView newRow = new EmployeeView(1L, "Shadab", "Azhar", "shadab@example.com", 1L);
+        BDDMockito.given(delegate.getEmployeeById(1L)).willAnswer(invocation -> {
+            // the update commits and invalidates while this read still holds the old row
+            employeeService.updateEmployee(1L, new EmployeeUpdate());
+            return Optional.of(oldRow);
+        }).willReturn(Optional.of(newRow));
+
+        //when - action or behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        EmployeeView employeeView = employeeService.getEmployeeById(1L).get();
+
+        //then - verify the output
+        Assertions.assertThat(employeeView.getVersion()).isEqualTo(1L);
+        verify(delegate, times(2)).getEmployeeById(1L);
+    }
+
+    //Junit test for getEmployeeVersion always asking the delegate
+    @DisplayName("Junit test for getEmployeeVersion always asking the delegate")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeVersion_thenDelegateAsked(){
+        //given = precondition or setup
+        BDDMockito.given(delegate.getEmployeeById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
+        BDDMockito.given(delegate.getEmployeeVersion(1L)).willReturn(Optional.of(4L));
+        employeeService.getEmployeeById(1L);
+
+        //when - action or behaviour that we are going to test
+        Optional<Long> version = employeeService.getEmployeeVersion(1L);
+
+        //then - verify the output
+        Assertions.assertThat(version).contains(4L);
+        verify(delegate, times(1)).getEmployeeVersion(1L);
+    }
+
+    //Junit test for an email changed away being free again
+    @DisplayName("Junit test for an email changed away being free again")
+    @Test
+    public void givenEmailChangedByUpdate_whenSaveEmployeeWithOldEmail_thenSaved() throws ResourceNotFoundException {
+        //given = precondition or setup
+        BDDMockito.given(delegate.getEmployeeById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
+        BDDMockito.given(delegate.saveEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArgument(0));
+        employeeService.getEmployeeById(1L);
+        employeeService.updateEmployee(1L, new EmployeeUpdate("Shadab", "Azhar", "shadab@example.com", 0L));
+        Employee newEmployee = Employee.builder()
+                .id(2L)
+                .firstName("Sameer")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build();
+
+        //when - action or behaviour that we are going to test
+        Employee savedEmployee = employeeService.saveEmployee(newEmployee);
+
+        //then - verify the output
+        Assertions.assertThat(savedEmployee).isNotNull();
+        verify(delegate, times(1)).saveEmployee(newEmployee);
+    }
+}
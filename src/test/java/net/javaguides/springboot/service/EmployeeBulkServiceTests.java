@@ -0,0 +1,95 @@
+package net.javaguides.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.ImportReport;
+import net.javaguides.springboot.ingest.EmployeeImportValidator;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeBulkServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeBulkServiceTests {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeBulkServiceImpl employeeBulkService;
+
+    @BeforeEach
+    public void setup(){
+        employeeBulkService = new EmployeeBulkServiceImpl(dataSource, employeeService, new ObjectMapper(), false,
+                new EmployeeImportValidator(employeeRepository, null, 2, 2));
+    }
+
+    //Junit test for CSV import with quoted fields and a broken row
+    @DisplayName("Junit test for CSV import with quoted fields and a broken row")
+    @Test
+    public void givenCsvUpload_whenImportCsv_thenValidRowsSavedAndBrokenRowReported() throws IOException {
+        //given = precondition or setup
+        String csv = "id,firstName,lastName,email,version\n" +
+                "1,Shadab,\"Azhar, Jr.\",shadab5azhar@gmail.com,0\n" +
+                "2,Tony\n" +
+                "3,Tony,Stark,tony@yahoo.com,0\n";
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                .willReturn(BatchResult.of(List.of(
+                        BatchItemResult.success(0, 1L, BatchItemResult.Status.CREATED),
+                        BatchItemResult.failure(1, null, BatchItemResult.Status.FAILED, "Employee already exist with given Email tony@yahoo.com"))));
+
+        //when - action or behaviour that we are going to test
+        ImportReport report = employeeBulkService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        //then - verify the output
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Employee>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(employeeService).saveEmployees(chunk.capture());
+        Assertions.assertThat(chunk.getValue()).extracting(Employee::getLastName).containsExactly("Azhar, Jr.", "Stark");
+        Assertions.assertThat(chunk.getValue()).extracting(Employee::getId).containsOnly(0L);
+        Assertions.assertThat(report.getRows()).isEqualTo(3);
+        Assertions.assertThat(report.getCreated()).isEqualTo(1);
+        Assertions.assertThat(report.getFailed()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).extracting(error -> error.getRow()).containsExactly(2L, 3L);
+    }
+
+    //Junit test for CSV import without the required columns
+    @DisplayName("Junit test for CSV import without the required columns")
+    @Test
+    public void givenCsvWithoutEmailColumn_whenImportCsv_thenThrowsException() {
+        //given = precondition or setup
+        String csv = "firstName,lastName\nShadab,Azhar\n";
+
+        //when - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            employeeBulkService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        });
+
+        //then - verify the output
+        verify(employeeService, never()).saveEmployees(ArgumentMatchers.anyList());
+    }
+}
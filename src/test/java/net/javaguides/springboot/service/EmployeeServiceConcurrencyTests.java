@@ -0,0 +1,79 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+public class EmployeeServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    public void cleanup(){
+        employeeRepository.deleteAll();
+    }
+
+    //Junit test for parallel creates with the same email
+    @DisplayName("Junit test for parallel creates with the same email")
+    @Test
+    public void givenParallelCreatesWithSameEmail_whenSaveEmployee_thenExactlyOneWins() throws Exception {
+        //given = precondition or setup
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for(int i = 0; i < THREADS; i++){
+            int attempt = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    employeeService.saveEmployee(Employee.builder()
+                            .firstName("Shadab")
+                            .lastName("Azhar " + attempt)
+                            .email("shadab5azhar@gmail.com")
+                            .build());
+                    created.incrementAndGet();
+                } catch (DuplicateEmailException e) {
+                    duplicates.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        //when - action or behaviour that we are going to test
+        start.countDown();
+        for(Future<?> future : futures){
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then - verify the output
+        Assertions.assertThat(created.get()).isEqualTo(1);
+        Assertions.assertThat(duplicates.get()).isEqualTo(THREADS - 1);
+        Assertions.assertThat(employeeRepository.findByEmailIn(List.of("shadab5azhar@gmail.com"))).hasSize(1);
+    }
+}
@@ -1,23 +1,43 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import net.javaguides.springboot.exception.DuplicateEmailException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import jakarta.persistence.EntityManager;
+import java.sql.SQLException;
+import java.time.Instant;
+
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -28,6 +48,15 @@ public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -52,15 +81,16 @@ public class EmployeeServiceTests {
             //given = precondition or setup
 
 
-            BDDMockito.given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-
-            BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
+            BDDMockito.given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
             //when - action or behaviour that we are going to test
             Employee savedEmployee = employeeService.saveEmployee(employee);
 
             //then - verify the output
 
             Assertions.assertThat(savedEmployee).isNotNull();
+            verify(employeeRepository,never()).findByEmail(any(String.class));
+            verify(eventPublisher, times(1)).publishEvent(ArgumentMatchers.<Object>argThat(event ->
+                    ((EmployeeChangedEvent) event).getType() == EmployeeChangedEvent.Type.CREATED));
         }
 
     //Junit test for save Employee method
@@ -70,18 +100,147 @@ public class EmployeeServiceTests {
         //given = precondition or setup
 
 
-        BDDMockito.given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        BDDMockito.given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("23505"), "PUBLIC.UX_EMPLOYEES_EMAIL_INDEX_A")));
 
-        //BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
         //when - action or behaviour that we are going to test
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class,()->{
+        org.junit.jupiter.api.Assertions.assertThrows(DuplicateEmailException.class,()->{
             employeeService.saveEmployee(employee);
         });
 
 
         //then - verify the output
-        verify(employeeRepository,never()).save(any(Employee.class));
+        verify(employeeRepository,never()).findByEmail(any(String.class));
+
+    }
+
+    //Junit test for saveEmployees (batch) method
+    @DisplayName("Junit test for saveEmployees (batch) method with an existing email")
+    @Test
+    public void givenBatchWithExistingEmail_whenSaveEmployees_thenReportResultPerItem(){
+        //given = precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Sonu")
+                .lastName("monu")
+                .email("sonu.monu@gmail.com")
+                .build();
+        BDDMockito.given(employeeRepository.findByEmailIn(Set.of(employee.getEmail(), employee1.getEmail())))
+                .willReturn(List.of(employee));
+        BDDMockito.given(employeeRepository.saveAll(List.of(employee1))).willAnswer((invocation) -> {
+            employee1.setId(2L);
+            return List.of(employee1);
+        });
+
+        //when - action or behaviour that we are going to test
+        BatchResult result = employeeService.saveEmployees(List.of(employee, employee1));
+
+        //then - verify the output
+        Assertions.assertThat(result.getSucceeded()).isEqualTo(1);
+        Assertions.assertThat(result.getFailed()).isEqualTo(1);
+        Assertions.assertThat(result.getItems().get(0).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+        Assertions.assertThat(result.getItems().get(1).getStatus()).isEqualTo(BatchItemResult.Status.CREATED);
+        Assertions.assertThat(result.getItems().get(1).getId()).isEqualTo(2L);
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    //Junit test for saveEmployees (batch) method isolating a row the database rejects
+    @DisplayName("Junit test for saveEmployees (batch) method isolating a row the database rejects")
+    @Test
+    public void givenBatchWithRowRejectedByDatabase_whenSaveEmployees_thenOnlyThatRowFailed(){
+        //given = precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for(int i = 0; i < 5; i++){
+            employees.add(Employee.builder()
+                    .firstName("Employee" + i)
+                    .lastName("Azhar")
+                    .email("employee" + i + "@gmail.com")
+                    .build());
+        }
+        Employee rejected = employees.get(3);
+        BDDMockito.given(employeeRepository.saveAll(ArgumentMatchers.<List<Employee>>any())).willAnswer((invocation) -> {
+            List<Employee> rows = invocation.getArgument(0);
+            // as if written meanwhile by another request, so only the unique index catches it
+            if(rows.contains(rejected)){
+                throw new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", new SQLException("23505"), "PUBLIC.UX_EMPLOYEES_EMAIL_INDEX_A"));
+            }
+            rows.forEach(row -> row.setId(employees.indexOf(row) + 1L));
+            return rows;
+        });
+
+        //when - action or behaviour that we are going to test
+        BatchResult result = employeeService.saveEmployees(employees);
+
+        //then - verify the output
+        Assertions.assertThat(result.getSucceeded()).isEqualTo(4);
+        Assertions.assertThat(result.getFailed()).isEqualTo(1);
+        Assertions.assertThat(result.getItems().get(3).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+        Assertions.assertThat(result.getItems().get(3).getError()).contains(rejected.getEmail());
+        Assertions.assertThat(result.getItems().get(4).getId()).isEqualTo(5L);
+    }
+
+    //Junit test for updateEmployees (batch) method isolating a row the database rejects
+    @DisplayName("Junit test for updateEmployees (batch) method isolating a row the database rejects")
+    @Test
+    public void givenBatchWithRowRejectedOnFlush_whenUpdateEmployees_thenOnlyThatRowFailed(){
+        //given = precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for(long id = 1; id <= 3; id++){
+            employees.add(Employee.builder()
+                    .id(id)
+                    .firstName("Employee" + id)
+                    .lastName("Azhar")
+                    .email("employee" + id + "@gmail.com")
+                    .build());
+        }
+        List<Long> attempted = new ArrayList<>();
+        BDDMockito.given(employeeRepository.findAllById(ArgumentMatchers.<Iterable<Long>>any())).willAnswer((invocation) -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            attempted.clear();
+            List<Employee> rows = new ArrayList<>();
+            for(Long id : ids){
+                attempted.add(id);
+                rows.add(Employee.builder().id(id).firstName("Old").lastName("Old").email("old" + id + "@gmail.com").build());
+            }
+            return rows;
+        });
+        // as if another request took the email meanwhile, so only the unique index catches it
+        BDDMockito.willAnswer((invocation) -> {
+            if(attempted.contains(2L)){
+                throw new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", new SQLException("23505"), "PUBLIC.UX_EMPLOYEES_EMAIL_INDEX_A"));
+            }
+            return null;
+        }).given(employeeRepository).flush();
+
+        //when - action or behaviour that we are going to test
+        BatchResult result = employeeService.updateEmployees(employees);
+
+        //then - verify the output
+        Assertions.assertThat(result.getSucceeded()).isEqualTo(2);
+        Assertions.assertThat(result.getFailed()).isEqualTo(1);
+        Assertions.assertThat(result.getItems().get(0).getStatus()).isEqualTo(BatchItemResult.Status.UPDATED);
+        Assertions.assertThat(result.getItems().get(1).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+        Assertions.assertThat(result.getItems().get(1).getError()).contains("employee2@gmail.com");
+        Assertions.assertThat(result.getItems().get(2).getStatus()).isEqualTo(BatchItemResult.Status.UPDATED);
+        verify(eventPublisher, times(2)).publishEvent(ArgumentMatchers.<Object>argThat(event ->
+                ((EmployeeChangedEvent) event).getType() == EmployeeChangedEvent.Type.UPDATED));
+    }
 
+    //Junit test for deleteEmployees (batch) method
+    @DisplayName("Junit test for deleteEmployees (batch) method with a missing id")
+    @Test
+    public void givenBatchWithMissingId_whenDeleteEmployees_thenReportNotFound(){
+        //given = precondition or setup
+        BDDMockito.given(employeeRepository.findExistingIds(List.of(1L, 99L))).willReturn(List.of(1L));
+
+        //when - action or behaviour that we are going to test
+        BatchResult result = employeeService.deleteEmployees(List.of(1L, 99L));
+
+        //then - verify the output
+        verify(employeeRepository, times(1)).deleteAllByIdInBatch(Set.of(1L));
+        Assertions.assertThat(result.getItems().get(0).getStatus()).isEqualTo(BatchItemResult.Status.DELETED);
+        Assertions.assertThat(result.getItems().get(1).getStatus()).isEqualTo(BatchItemResult.Status.NOT_FOUND);
     }
 
         //Junit test for getAllEmployees method
@@ -95,9 +254,9 @@ public class EmployeeServiceTests {
                     .lastName("monu")
                     .email("sonu.monu@gmail.com")
                     .build();
-        BDDMockito.given(employeeRepository.findAll()).willReturn(List.of(employee,employee1));
+        BDDMockito.given(employeeRepository.findAllViews()).willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee1)));
             //when - action or behaviour that we are going to test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
             //then - verify the output
 
             Assertions.assertThat(employeeList).isNotNull();
@@ -115,59 +274,215 @@ public class EmployeeServiceTests {
                 .lastName("monu")
                 .email("sonu.monu@gmail.com")
                 .build();
-        BDDMockito.given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        BDDMockito.given(employeeRepository.findAllViews()).willReturn(Collections.emptyList());
         //when - action or behaviour that we are going to test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
         //then - verify the output
 
         Assertions.assertThat(employeeList).isEmpty();
         Assertions.assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    //Junit test for getEmployees (keyset page) method
+    @DisplayName("Junit test for getEmployees (keyset page) method")
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployees_thenReturnPageWithNextCursor(){
+        //given = precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Sonu")
+                .lastName("monu")
+                .email("sonu.monu@gmail.com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .id(3L)
+                .firstName("Tony")
+                .lastName("Stark")
+                .email("tony@yahoo.com")
+                .build();
+        List<EmployeeView> views = List.of(EmployeeView.of(employee), EmployeeView.of(employee1), EmployeeView.of(employee2));
+        BDDMockito.given(employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .willReturn(views);
+
+        //when - action or behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployees(0L, 2);
+
+        //then - verify the output
+        Assertions.assertThat(page.getContent()).containsExactly(views.get(0), views.get(1));
+        Assertions.assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    //Junit test for getEmployees (keyset page) method
+    @DisplayName("Junit test for getEmployees (keyset page) method on the last page")
+    @Test
+    public void givenFewerEmployeesThanLimit_whenGetEmployees_thenReturnPageWithoutNextCursor(){
+        //given = precondition or setup
+        EmployeeView view = EmployeeView.of(employee);
+        BDDMockito.given(employeeRepository.findViewsByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .willReturn(List.of(view));
+
+        //when - action or behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployees(0L, 2);
+
+        //then - verify the output
+        Assertions.assertThat(page.getContent()).containsExactly(view);
+        Assertions.assertThat(page.getNextCursor()).isNull();
+    }
+
         //Junit test for gteEmployeeById method
             @DisplayName("Junit test for gteEmployeeById method")
             @Test
             public void givenEmployeeId_whenEmployeeId_thenReturnEmployeeObject(){
                 //given = precondition or setup
-                BDDMockito.given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+                BDDMockito.given(employeeRepository.findViewById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
 
                 //when - action or behaviour that we are going to test
-                Employee savedEmployee = employeeService.getEmployeeById(employee.getId()).get();
+                EmployeeView savedEmployee = employeeService.getEmployeeById(employee.getId()).get();
 
                 //then - verify the output
                 Assertions.assertThat(savedEmployee).isNotNull();
             }
 
-           //Junit test for updateEmployee
-                @DisplayName("Junit test for updateEmployee")
-               @Test
-               public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
-                   //given = precondition or setup
-                   BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
+    //Junit test for getEmployeeByEmail
+    @DisplayName("Junit test for getEmployeeByEmail")
+    @Test
+    public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject(){
+        //given = precondition or setup
+        BDDMockito.given(employeeRepository.findViewByEmail(employee.getEmail())).willReturn(Optional.of(EmployeeView.of(employee)));
 
-                   employee.setEmail("shadab10azhar@gmail.com");
-                   employee.setFirstName("Shaddu");
+        //when - action or behaviour that we are going to test
+        Optional<EmployeeView> savedEmployee = employeeService.getEmployeeByEmail(employee.getEmail());
 
+        //then - verify the output
+        Assertions.assertThat(savedEmployee).isPresent();
+        Assertions.assertThat(savedEmployee.get().getId()).isEqualTo(1L);
+    }
 
-                   //when - action or behaviour that we are going to test
-                   Employee updatedEmployee = employeeService.updateEmployee(employee);
+    //Junit test for updateEmployee
+    @DisplayName("Junit test for updateEmployee")
+    @Test
+    public void givenEmployeePatch_whenUpdateEmployee_thenSingleUpdateIssued(){
+        //given = precondition or setup
+        EmployeeUpdate patch = EmployeeUpdate.builder()
+                .firstName("Shaddu")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeRepository.updateEmployee(1L, "Shaddu", null, "shadab10azhar@gmail.com", null))
+                .willReturn(1);
 
-                   //then - verify the output
-                   Assertions.assertThat(updatedEmployee.getEmail()).isEqualTo("shadab10azhar@gmail.com");
-                   Assertions.assertThat(updatedEmployee.getFirstName()).isEqualTo("Shaddu");
+        //when - action or behaviour that we are going to test
+        boolean updated = employeeService.updateEmployee(1L, patch);
+
+        //then - verify the output
+        Assertions.assertThat(updated).isTrue();
+        verify(employeeRepository, never()).findViewById(any(Long.class));
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    //Junit test for updateEmployeeAndGet
+    @DisplayName("Junit test for updateEmployeeAndGet returning the row as written")
+    @Test
+    public void givenEmployeePatch_whenUpdateEmployeeAndGet_thenUpdatedRowReturned(){
+        //given = precondition or setup
+        EmployeeUpdate patch = EmployeeUpdate.builder()
+                .firstName("Shaddu")
+                .lastName("Azhar")
+                .email("shadab10azhar@gmail.com")
+                .build();
+        BDDMockito.given(employeeRepository.updateEmployee(1L, "Shaddu", "Azhar", "shadab10azhar@gmail.com", null))
+                .willReturn(1);
+        BDDMockito.given(employeeRepository.findViewById(1L))
+                .willReturn(Optional.of(new EmployeeView(1L, "Shaddu", "Azhar", "shadab10azhar@gmail.com", 1L)));
+
+        //when - action or behaviour that we are going to test
+        Optional<EmployeeView> updatedEmployee = employeeService.updateEmployeeAndGet(1L, patch);
 
-               }
+        //then - verify the output
+        Assertions.assertThat(updatedEmployee).isPresent();
+        Assertions.assertThat(updatedEmployee.get().getFirstName()).isEqualTo("Shaddu");
+        Assertions.assertThat(updatedEmployee.get().getVersion()).isEqualTo(1L);
+    }
+
+    //Junit test for updateEmployee with a stale version
+    @DisplayName("Junit test for updateEmployee with a stale version")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsOptimisticLockingFailure(){
+        //given = precondition or setup
+        EmployeeUpdate patch = EmployeeUpdate.builder()
+                .firstName("Shaddu")
+                .version(3L)
+                .build();
+        BDDMockito.given(employeeRepository.updateEmployee(1L, "Shaddu", null, null, 3L)).willReturn(0);
+        BDDMockito.given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.updateEmployee(1L, patch);
+        });
+    }
+
+    //Junit test for deleteEmployee with a stale version
+    @DisplayName("Junit test for deleteEmployee with a stale version")
+    @Test
+    public void givenStaleVersion_whenDeleteEmployee_thenThrowsOptimisticLockingFailure(){
+        //given = precondition or setup
+        BDDMockito.given(employeeRepository.deleteByIdAndVersion(1L, 3L)).willReturn(0);
+        BDDMockito.given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.deleteEmployee(1L, 3L);
+        });
+
+        //then - verify the output
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 
                //Junit test for delete Employee method
                @Test
-               public void givenEmployeeId_whenDeleteEmployee_thenNothing(){
+               public void givenEmployeeId_whenDeleteEmployee_thenSingleDeleteIssued(){
                     //given = precondition or setup
                    long employeeId = 1L;
-                   BDDMockito.willDoNothing().given(employeeRepository).deleteById(employeeId);
+                   BDDMockito.given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
                    //when - action or behaviour that we are going to test
-                   employeeService.deleteEmployee(employeeId);
+                   boolean deleted = employeeService.deleteEmployee(employeeId);
                    //then - verify the output
-                   BDDMockito.verify(employeeRepository,times(1)).deleteById(employeeId);
+                   Assertions.assertThat(deleted).isTrue();
+                   BDDMockito.verify(employeeRepository,times(1)).deleteEmployeeById(employeeId);
+                   BDDMockito.verify(employeeRepository,never()).findById(employeeId);
+    }
+
+    //Junit test for delete Employee method with a missing id
+    @DisplayName("Junit test for delete Employee method with a missing id")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnFalse(){
+        //given = precondition or setup
+        BDDMockito.given(employeeRepository.deleteEmployeeById(99L)).willReturn(0);
+
+        //when - action or behaviour that we are going to test
+        boolean deleted = employeeService.deleteEmployee(99L);
+
+        //then - verify the output
+        Assertions.assertThat(deleted).isFalse();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    //Junit test for delete Employee method in soft delete mode
+    @DisplayName("Junit test for delete Employee method in soft delete mode")
+    @Test
+    public void givenSoftDeleteMode_whenDeleteEmployee_thenRowFlaggedNotDeleted(){
+        //given = precondition or setup
+        EmployeeServiceImpl softDeleteService = new EmployeeServiceImpl(employeeRepository, entityManager,
+                eventPublisher, transactionManager, EmployeeDeleteMode.SOFT, null);
+        BDDMockito.given(employeeRepository.softDeleteEmployee(ArgumentMatchers.eq(1L), ArgumentMatchers.isNull(),
+                ArgumentMatchers.any(Instant.class))).willReturn(1);
+
+        //when - action or behaviour that we are going to test
+        boolean deleted = softDeleteService.deleteEmployee(1L);
+
+        //then - verify the output
+        Assertions.assertThat(deleted).isTrue();
+        verify(employeeRepository, never()).deleteEmployeeById(1L);
     }
 }
@@ -0,0 +1,212 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.BatchItemResult;
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeUpdate;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.DuplicateEmailException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.ShardedEmployeeService;
+import net.javaguides.springboot.shard.ShardContext;
+import net.javaguides.springboot.shard.ShardIds;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ShardedEmployeeServiceTests {
+
+    private static final int SHARDS = 4;
+
+    @Mock
+    private EmployeeService delegate;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShardedEmployeeService employeeService;
+
+    @BeforeEach
+    public void setup(){
+        employeeService = new ShardedEmployeeService(delegate, employeeRepository, transactionManager, SHARDS,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @AfterEach
+    public void cleanup(){
+        employeeService.close();
+    }
+
+    //Junit test for getEmployeeById going to the shard encoded in the id
+    @DisplayName("Junit test for getEmployeeById going to the shard encoded in the id")
+    @Test
+    public void givenShardedId_whenGetEmployeeById_thenOwningShardAsked(){
+        //given = precondition or setup
+        long id = ShardIds.encode(7, 2);
+        List<Integer> shardsAsked = new ArrayList<>();
+        BDDMockito.given(delegate.getEmployeeById(id)).willAnswer(invocation -> {
+            shardsAsked.add(ShardContext.current());
+            return Optional.of(new EmployeeView(id, "Shadab", "Azhar", "shadab5azhar@gmail.com", 0L));
+        });
+
+        //when - action or behaviour that we are going to test
+        Optional<EmployeeView> employee = employeeService.getEmployeeById(id);
+
+        //then - verify the output
+        Assertions.assertThat(employee).isPresent();
+        Assertions.assertThat(shardsAsked).containsExactly(2);
+    }
+
+    //Junit test for getEmployeeById with an id of a shard that does not exist
+    @DisplayName("Junit test for getEmployeeById with an id of a shard that does not exist")
+    @Test
+    public void givenIdOfUnknownShard_whenGetEmployeeById_thenEmptyWithoutQuery(){
+        //given = precondition or setup
+        long id = ShardIds.encode(7, SHARDS);
+
+        //when - action or behaviour that we are going to test
+        Optional<EmployeeView> employee = employeeService.getEmployeeById(id);
+
+        //then - verify the output
+        Assertions.assertThat(employee).isEmpty();
+        verify(delegate, never()).getEmployeeById(ArgumentMatchers.anyLong());
+    }
+
+    //Junit test for getEmployees merging the shard pages in id order
+    @DisplayName("Junit test for getEmployees merging the shard pages in id order")
+    @Test
+    public void givenRowsOnSeveralShards_whenGetEmployees_thenMergedInIdOrder(){
+        //given = precondition or setup
+        BDDMockito.given(delegate.getEmployees(0L, 2)).willAnswer(invocation -> switch (ShardContext.current()) {
+            case 0 -> new EmployeePage(List.of(view(ShardIds.encode(1, 0)), view(ShardIds.encode(2, 0))), ShardIds.encode(2, 0));
+            case 1 -> new EmployeePage(List.of(view(ShardIds.encode(1, 1))), null);
+            default -> new EmployeePage(List.of(), null);
+        });
+
+        //when - action or behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployees(0L, 2);
+
+        //then - verify the output
+        Assertions.assertThat(page.getContent()).extracting(EmployeeView::getId)
+                .containsExactly(ShardIds.encode(1, 0), ShardIds.encode(1, 1));
+        Assertions.assertThat(page.getNextCursor()).isEqualTo(ShardIds.encode(1, 1));
+    }
+
+    //Junit test for saveEmployees splitting the batch by home shard
+    @DisplayName("Junit test for saveEmployees splitting the batch by home shard")
+    @Test
+    public void givenEmployeesOfDifferentShards_whenSaveEmployees_thenEachShardSavesItsOwn(){
+        //given = precondition or setup
+        List<Employee> employees = employeesOnDifferentShards();
+        BDDMockito.given(delegate.saveEmployees(ArgumentMatchers.anyList())).willAnswer(invocation -> {
+            List<Employee> shardEmployees = invocation.getArgument(0);
+            List<BatchItemResult> items = new ArrayList<>();
+            for(int i = 0; i < shardEmployees.size(); i++){
+                items.add(BatchItemResult.success(i, ShardIds.encode(i + 1, ShardContext.current()), BatchItemResult.Status.CREATED));
+            }
+            return BatchResult.of(items);
+        });
+
+        //when - action or behaviour that we are going to test
+        BatchResult result = employeeService.saveEmployees(employees);
+
+        //then - verify the output
+        Assertions.assertThat(result.getSucceeded()).isEqualTo(2);
+        for(int i = 0; i < employees.size(); i++){
+            BatchItemResult item = result.getItems().get(i);
+            Assertions.assertThat(item.getIndex()).isEqualTo(i);
+            Assertions.assertThat(ShardIds.shardOf(item.getId()))
+                    .isEqualTo(ShardIds.shardForEmail(employees.get(i).getEmail(), SHARDS));
+        }
+    }
+
+    //Junit test for saveEmployee rejecting an email held by another shard
+    @DisplayName("Junit test for saveEmployee rejecting an email held by another shard")
+    @Test
+    public void givenEmailOnAnotherShard_whenSaveEmployee_thenThrowsDuplicateEmail() throws Exception {
+        //given = precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build();
+        int home = ShardIds.shardForEmail(employee.getEmail(), SHARDS);
+        BDDMockito.given(employeeRepository.findByEmailIn(ArgumentMatchers.anyCollection())).willAnswer(invocation ->
+                ShardContext.current() == (home + 1) % SHARDS ? List.of(employee) : List.of());
+
+        //when - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DuplicateEmailException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+
+        //then - verify the output
+        verify(delegate, never()).saveEmployee(any(Employee.class));
+    }
+
+    //Junit test for updateEmployee rejecting an email held by another shard
+    @DisplayName("Junit test for updateEmployee rejecting an email held by another shard")
+    @Test
+    public void givenEmailOnAnotherShard_whenUpdateEmployee_thenThrowsEmailConflict(){
+        //given = precondition or setup
+        Employee holder = Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build();
+        long id = ShardIds.encode(1L, 0);
+        BDDMockito.given(employeeRepository.findByEmailIn(ArgumentMatchers.anyCollection())).willAnswer(invocation ->
+                ShardContext.current() == 1 ? List.of(holder) : List.of());
+        EmployeeUpdate patch = EmployeeUpdate.builder()
+                .email(holder.getEmail())
+                .build();
+
+        //when - action or behaviour that we are going to test
+        DataIntegrityViolationException thrown = org.junit.jupiter.api.Assertions.assertThrows(
+                DataIntegrityViolationException.class, () -> employeeService.updateEmployee(id, patch));
+
+        //then - verify the output
+        Assertions.assertThat(DuplicateEmailException.isEmailConflict(thrown)).isTrue();
+        verify(delegate, never()).updateEmployee(ArgumentMatchers.anyLong(), any(EmployeeUpdate.class));
+    }
+
+    private static EmployeeView view(long id) {
+        return new EmployeeView(id, "Employee", String.valueOf(id), "employee" + id + "@gmail.com", 0L);
+    }
+
+    private static List<Employee> employeesOnDifferentShards() {
+        List<Employee> employees = new ArrayList<>();
+        int firstShard = -1;
+        for(int i = 0; employees.size() < 2; i++){
+            String email = "employee" + i + "@gmail.com";
+            int shard = ShardIds.shardForEmail(email, SHARDS);
+            if(shard != firstShard){
+                firstShard = firstShard < 0 ? shard : firstShard;
+                employees.add(Employee.builder().firstName("Employee").lastName(String.valueOf(i)).email(email).build());
+            }
+        }
+        return employees;
+    }
+}
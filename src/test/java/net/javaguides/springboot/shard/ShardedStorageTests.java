@@ -0,0 +1,118 @@
+package net.javaguides.springboot.shard;
+
+import net.javaguides.springboot.dto.BatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sharded profile end to end, on four in-memory H2 databases.
+ */
+@SpringBootTest
+@ActiveProfiles("sharded")
+public class ShardedStorageTests {
+
+    private static final int EMPLOYEES = 40;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @AfterEach
+    public void cleanup(){
+        employeeService.deleteEmployees(employeeService.getAllEmployees().stream().map(EmployeeView::getId).toList());
+    }
+
+    //Junit test for every employee being written to the shard its email hashes to
+    @DisplayName("Junit test for every employee being written to the shard its email hashes to")
+    @Test
+    public void givenEmployees_whenSaveEmployees_thenEachRowOnItsHomeShard(){
+        //given = precondition or setup
+        List<Employee> employees = employees();
+
+        //when - action or behaviour that we are going to test
+        BatchResult result = employeeService.saveEmployees(employees);
+
+        //then - verify the output
+        Assertions.assertThat(result.getSucceeded()).isEqualTo(EMPLOYEES);
+        int total = 0;
+        for(int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++){
+            List<String> emails = new JdbcTemplate(shardRoutingDataSource.getShard(shard))
+                    .queryForList("select email from employees", String.class);
+            for(String email : emails){
+                Assertions.assertThat(ShardIds.shardForEmail(email, shardRoutingDataSource.getShardCount())).isEqualTo(shard);
+            }
+            total += emails.size();
+        }
+        Assertions.assertThat(total).isEqualTo(EMPLOYEES);
+        result.getItems().forEach(item -> Assertions.assertThat(ShardIds.shardForEmail(employees.get(item.getIndex()).getEmail(),
+                shardRoutingDataSource.getShardCount())).isEqualTo(ShardIds.shardOf(item.getId())));
+    }
+
+    //Junit test for keyset paging across shards
+    @DisplayName("Junit test for keyset paging across shards")
+    @Test
+    public void givenEmployeesOnAllShards_whenPagingWithGetEmployees_thenEveryEmployeeOnceInIdOrder(){
+        //given = precondition or setup
+        employeeService.saveEmployees(employees());
+
+        //when - action or behaviour that we are going to test
+        List<Long> ids = new ArrayList<>();
+        Long cursor = 0L;
+        while(cursor != null){
+            EmployeePage page = employeeService.getEmployees(cursor, 7);
+            page.getContent().forEach(employee -> ids.add(employee.getId()));
+            cursor = page.getNextCursor();
+        }
+
+        //then - verify the output
+        Assertions.assertThat(ids).hasSize(EMPLOYEES).isSorted().doesNotHaveDuplicates();
+        Assertions.assertThat(ids).isEqualTo(employeeService.getAllEmployees().stream().map(EmployeeView::getId).toList());
+    }
+
+    //Junit test for reading one employee back by id and by email
+    @DisplayName("Junit test for reading one employee back by id and by email")
+    @Test
+    public void givenSavedEmployee_whenGetByIdAndByEmail_thenFoundOnItsShard() throws Exception {
+        //given = precondition or setup
+        Employee savedEmployee = employeeService.saveEmployee(Employee.builder()
+                .firstName("Shadab")
+                .lastName("Azhar")
+                .email("shadab5azhar@gmail.com")
+                .build());
+
+        //when - action or behaviour that we are going to test
+        EmployeeView byId = employeeService.getEmployeeById(savedEmployee.getId()).get();
+        EmployeeView byEmail = employeeService.getEmployeeByEmail("shadab5azhar@gmail.com").get();
+
+        //then - verify the output
+        Assertions.assertThat(byId.getEmail()).isEqualTo("shadab5azhar@gmail.com");
+        Assertions.assertThat(byEmail.getId()).isEqualTo(savedEmployee.getId());
+    }
+
+    private static List<Employee> employees() {
+        List<Employee> employees = new ArrayList<>();
+        for(int i = 0; i < EMPLOYEES; i++){
+            employees.add(Employee.builder()
+                    .firstName("Employee")
+                    .lastName(String.valueOf(i))
+                    .email("employee" + i + "@gmail.com")
+                    .build());
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,111 @@
+package net.javaguides.springboot.snapshot;
+
+import net.javaguides.springboot.dto.EmployeeView;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+public class EmployeeSnapshotFileTests {
+
+    @TempDir
+    private Path directory;
+
+    private Path file;
+
+    private OffHeapEmployeeTable table;
+
+    @BeforeEach
+    public void setup(){
+        file = directory.resolve("employees.snapshot");
+        table = new OffHeapEmployeeTable(100);
+        for(long id = 1; id <= 100; id++){
+            table.load(view(id, "Employee" + id, 0L));
+        }
+        table.delete(7L);
+    }
+
+    //Junit test for a written snapshot being mapped back as it was
+    @DisplayName("Junit test for a written snapshot being mapped back as it was")
+    @Test
+    public void givenWrittenSnapshot_whenMap_thenSameRowsServed() throws Exception {
+        //given = precondition or setup
+        EmployeeSnapshotFile.write(table, file, System.currentTimeMillis());
+
+        //when - action or behaviour that we are going to test
+        EmployeeSnapshotFile.Mapped mapped = EmployeeSnapshotFile.map(file, Duration.ofHours(1));
+
+        //then - verify the output
+        Assertions.assertThat(mapped).isNotNull();
+        Assertions.assertThat(mapped.table().size()).isEqualTo(99);
+        Assertions.assertThat(mapped.table().get(1L)).usingRecursiveComparison().isEqualTo(view(1L, "Employee1", 0L));
+        Assertions.assertThat(mapped.table().get(7L)).isNull();
+        Assertions.assertThat(mapped.table().get(101L)).isNull();
+    }
+
+    //Junit test for patching a mapped snapshot leaving the file untouched
+    @DisplayName("Junit test for patching a mapped snapshot leaving the file untouched")
+    @Test
+    public void givenMappedSnapshot_whenPatched_thenFileUnchanged() throws Exception {
+        //given = precondition or setup
+        EmployeeSnapshotFile.write(table, file, System.currentTimeMillis());
+        OffHeapEmployeeTable mapped = EmployeeSnapshotFile.map(file, Duration.ofHours(1)).table();
+
+        //when - action or behaviour that we are going to test
+        mapped.apply(view(1L, "Zoë", 1L));
+        mapped.apply(view(101L, "Employee101", 0L));
+
+        //then - verify the output
+        Assertions.assertThat(mapped.get(1L)).usingRecursiveComparison().isEqualTo(view(1L, "Zoë", 1L));
+        Assertions.assertThat(mapped.get(101L)).usingRecursiveComparison().isEqualTo(view(101L, "Employee101", 0L));
+        OffHeapEmployeeTable reread = EmployeeSnapshotFile.map(file, Duration.ofHours(1)).table();
+        Assertions.assertThat(reread.get(1L)).usingRecursiveComparison().isEqualTo(view(1L, "Employee1", 0L));
+        Assertions.assertThat(reread.get(101L)).isNull();
+    }
+
+    //Junit test for a corrupted snapshot being refused
+    @DisplayName("Junit test for a corrupted snapshot being refused")
+    @Test
+    public void givenCorruptedSnapshot_whenMap_thenNull() throws Exception {
+        //given = precondition or setup
+        EmployeeSnapshotFile.write(table, file, System.currentTimeMillis());
+        // one bit flipped among the slots, just past the header
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer oneByte = ByteBuffer.allocate(1);
+            channel.read(oneByte, 100);
+            oneByte.put(0, (byte) (oneByte.get(0) ^ 1));
+            channel.write(oneByte.clear(), 100);
+        }
+
+        //when - action or behaviour that we are going to test
+        EmployeeSnapshotFile.Mapped mapped = EmployeeSnapshotFile.map(file, Duration.ofHours(1));
+
+        //then - verify the output
+        Assertions.assertThat(mapped).isNull();
+    }
+
+    //Junit test for a snapshot older than the allowed age being refused
+    @DisplayName("Junit test for a snapshot older than the allowed age being refused")
+    @Test
+    public void givenSnapshotOlderThanMaxAge_whenMap_thenNull() throws Exception {
+        //given = precondition or setup
+        EmployeeSnapshotFile.write(table, file, System.currentTimeMillis() - Duration.ofHours(2).toMillis());
+
+        //when - action or behaviour that we are going to test
+        EmployeeSnapshotFile.Mapped mapped = EmployeeSnapshotFile.map(file, Duration.ofHours(1));
+
+        //then - verify the output
+        Assertions.assertThat(mapped).isNull();
+    }
+
+    private static EmployeeView view(long id, String firstName, long version) {
+        return new EmployeeView(id, firstName, "Azhar", firstName.toLowerCase() + id + "@gmail.com", version);
+    }
+}
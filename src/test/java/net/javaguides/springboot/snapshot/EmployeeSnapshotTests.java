@@ -0,0 +1,136 @@
+package net.javaguides.springboot.snapshot;
+
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.EmployeeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSnapshotTests {
+
+    @Mock
+    private ObjectProvider<EmployeeService> employeeServiceProvider;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeSnapshot snapshot;
+
+    @BeforeEach
+    public void setup(){
+        // not started, tests rebuild explicitly
+        snapshot = new EmployeeSnapshot(employeeServiceProvider, Duration.ofMinutes(10), 16, 100, "", Duration.ofHours(1));
+    }
+
+    //Junit test for lookups being served from the snapshot once it is loaded
+    @DisplayName("Junit test for lookups being served from the snapshot once it is loaded")
+    @Test
+    public void givenRowsInDatabase_whenRebuild_thenGetServesThem(){
+        //given = precondition or setup
+        givenRows(view(1L, "Shadab", 0L), view(2L, "Tony", 0L));
+        Assertions.assertThat(snapshot.get(1L)).isNull();
+
+        //when - action or behaviour that we are going to test
+        snapshot.rebuild();
+
+        //then - verify the output
+        Assertions.assertThat(snapshot.get(1L)).usingRecursiveComparison().isEqualTo(view(1L, "Shadab", 0L));
+        Assertions.assertThat(snapshot.get(2L).getFirstName()).isEqualTo("Tony");
+        Assertions.assertThat(snapshot.get(3L)).isNull();
+        Assertions.assertThat(snapshot.getSize()).isEqualTo(2);
+    }
+
+    //Junit test for a change committed during the load not being lost
+    @DisplayName("Junit test for a change committed during the load not being lost")
+    @Test
+    public void givenUpdateCommittedDuringLoad_whenRebuild_thenNewerVersionKept(){
+        //given = precondition or setup
+        BDDMockito.given(employeeServiceProvider.getObject()).willReturn(employeeService);
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<EmployeeView> consumer = invocation.getArgument(0);
+            // the update commits after the scan started but the scan still reads the old row
+            snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L, view(1L, "Ram", 1L)));
+            consumer.accept(view(1L, "Shadab", 0L));
+            return null;
+        }).given(employeeService).streamEmployees(ArgumentMatchers.any());
+
+        //when - action or behaviour that we are going to test
+        snapshot.rebuild();
+
+        //then - verify the output
+        Assertions.assertThat(snapshot.get(1L)).usingRecursiveComparison().isEqualTo(view(1L, "Ram", 1L));
+    }
+
+    //Junit test for patching the loaded snapshot from change events
+    @DisplayName("Junit test for patching the loaded snapshot from change events")
+    @Test
+    public void givenLoadedSnapshot_whenEmployeesChanged_thenPatchedOrLeftToDatabase(){
+        //given = precondition or setup
+        givenRows(view(1L, "Shadab", 0L), view(2L, "Tony", 0L), view(3L, "Ram", 0L));
+        snapshot.rebuild();
+
+        //when - action or behaviour that we are going to test
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L, view(1L, "Sam", 2L)));
+        // arrives late and must not roll the row back
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L, view(1L, "Sham", 1L)));
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 2L, null));
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 3L, null));
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 3L, view(3L, "Ram", 1L)));
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.CREATED, 4L, view(4L, "Zoë", 0L)));
+
+        //then - verify the output
+        Assertions.assertThat(snapshot.get(1L)).usingRecursiveComparison().isEqualTo(view(1L, "Sam", 2L));
+        Assertions.assertThat(snapshot.get(2L)).isNull();
+        Assertions.assertThat(snapshot.get(3L)).isNull();
+        Assertions.assertThat(snapshot.get(4L)).usingRecursiveComparison().isEqualTo(view(4L, "Zoë", 0L));
+        Assertions.assertThat(snapshot.getSize()).isEqualTo(2);
+    }
+
+    //Junit test for the table growing past its expected size
+    @DisplayName("Junit test for the table growing past its expected size")
+    @Test
+    public void givenMoreRowsThanExpected_whenLoad_thenTableGrowsAndKeepsEveryRow(){
+        //given = precondition or setup
+        OffHeapEmployeeTable table = new OffHeapEmployeeTable(1);
+        long initialBytes = table.offHeapBytes();
+
+        //when - action or behaviour that we are going to test
+        for(long id = 1; id <= 10_000; id++){
+            table.load(view(id, "Employee" + id, 0L));
+        }
+
+        //then - verify the output
+        Assertions.assertThat(table.size()).isEqualTo(10_000);
+        Assertions.assertThat(table.offHeapBytes()).isGreaterThan(initialBytes);
+        for(long id = 1; id <= 10_000; id++){
+            Assertions.assertThat(table.get(id)).usingRecursiveComparison().isEqualTo(view(id, "Employee" + id, 0L));
+        }
+    }
+
+    private void givenRows(EmployeeView... rows) {
+        BDDMockito.given(employeeServiceProvider.getObject()).willReturn(employeeService);
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<EmployeeView> consumer = invocation.getArgument(0);
+            for(EmployeeView row : rows){
+                consumer.accept(row);
+            }
+            return null;
+        }).given(employeeService).streamEmployees(ArgumentMatchers.any());
+    }
+
+    private static EmployeeView view(long id, String firstName, long version) {
+        return new EmployeeView(id, firstName, "Azhar", firstName.toLowerCase() + id + "@gmail.com", version);
+    }
+}
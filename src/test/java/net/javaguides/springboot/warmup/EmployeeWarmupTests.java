@@ -0,0 +1,91 @@
+package net.javaguides.springboot.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeWarmupTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    private EmployeeWarmup warmup;
+
+    @BeforeEach
+    public void setup(){
+        warmup = new EmployeeWarmup(employeeRepository, dataSource, new ObjectMapper(), 3, 5);
+    }
+
+    //Junit test for holding every pool connection at once and returning them all
+    @DisplayName("Junit test for holding every pool connection at once and returning them all")
+    @Test
+    public void givenPoolSize_whenFillPool_thenAllConnectionsOpenedThenClosed() throws SQLException {
+        //given = precondition or setup
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        Connection third = mock(Connection.class);
+        BDDMockito.given(dataSource.getConnection()).willReturn(first, second, third);
+
+        //when - action or behaviour that we are going to test
+        warmup.fillPool();
+
+        //then - verify the output
+        verify(dataSource, times(3)).getConnection();
+        verify(first).close();
+        verify(second).close();
+        verify(third).close();
+    }
+
+    //Junit test for returning the connections already taken when the pool runs dry
+    @DisplayName("Junit test for returning the connections already taken when the pool runs dry")
+    @Test
+    public void givenPoolExhausted_whenFillPool_thenHeldConnectionsClosed() throws SQLException {
+        //given = precondition or setup
+        Connection first = mock(Connection.class);
+        BDDMockito.given(dataSource.getConnection()).willReturn(first).willThrow(new SQLException("timeout"));
+
+        //when - action or behaviour that we are going to test
+        Throwable thrown = Assertions.catchThrowable(() -> warmup.fillPool());
+
+        //then - verify the output
+        Assertions.assertThat(thrown).isInstanceOf(SQLException.class);
+        verify(first).close();
+    }
+
+    //Junit test for running the repository reads once per iteration
+    @DisplayName("Junit test for running the repository reads once per iteration")
+    @Test
+    public void givenIterations_whenRun_thenRepositoryQueriedEachIteration() throws Exception {
+        //given = precondition or setup
+        BDDMockito.given(dataSource.getConnection()).willReturn(mock(Connection.class));
+
+        //when - action or behaviour that we are going to test
+        warmup.run(new DefaultApplicationArguments());
+
+        //then - verify the output
+        verify(employeeRepository, times(5)).findViewById(-1L);
+        verify(employeeRepository, times(5)).findViewByEmail(EmployeeWarmup.MISSING_EMAIL);
+        verify(employeeRepository, times(5)).findVersionById(-1L);
+        Assertions.assertThat(warmup.getDurationNanos()).isPositive();
+    }
+}